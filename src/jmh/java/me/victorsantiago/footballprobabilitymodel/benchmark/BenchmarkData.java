@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.benchmark;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import me.victorsantiago.footballprobabilitymodel.model.League;
+import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.util.SerializerUtil;
+
+/**
+ * Input data shared by the benchmarks. Paths are relative to the project directory, where the jmh task runs.
+ */
+public final class BenchmarkData {
+
+    public static final String SAMPLE = "src/test/resources/sample.json";
+
+    private BenchmarkData() { }
+
+    public static List<League> getLeagues() throws IOException {
+        return SerializerUtil.getLeagues(SAMPLE);
+    }
+
+    /**
+     * @return Every match in the sample, sorted by date.
+     */
+    public static List<Match> getSortedMatches() throws IOException {
+        List<Match> matches = SerializerUtil.getMatchesFromLeaguesFiles(SAMPLE);
+        Collections.sort(matches);
+        return matches;
+    }
+
+    /**
+     * @return The last N matches before a date, or all of them if there are fewer.
+     */
+    public static List<Match> getHistoryBefore(List<Match> sortedMatches, Date date, int historySize) {
+        int end = 0;
+        while (end < sortedMatches.size() && sortedMatches.get(end).getDate().before(date)) {
+            end++;
+        }
+
+        return sortedMatches.subList(Math.max(0, end - historySize), end);
+    }
+}
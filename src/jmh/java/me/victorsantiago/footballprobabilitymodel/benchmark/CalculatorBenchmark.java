@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import me.victorsantiago.footballprobabilitymodel.calculator.impl.EloCalculator;
+import me.victorsantiago.footballprobabilitymodel.calculator.impl.PoissonCalculator;
+import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.model.MatchProbability;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Probabilities of the matches after a history of N matches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CalculatorBenchmark {
+
+    @Param({"100", "380", "700"})
+    private int historySize;
+
+    @Param({"5", "10"})
+    private int goalLimit;
+
+    private List<Match> history;
+    private List<Match> fixtures;
+    private PoissonCalculator poisson;
+
+    @Setup
+    public void setup() throws IOException {
+        List<Match> matches = BenchmarkData.getSortedMatches();
+        history = new ArrayList<>(matches.subList(0, historySize));
+        fixtures = new ArrayList<>(matches.subList(historySize, matches.size()));
+        poisson = new PoissonCalculator(goalLimit);
+    }
+
+    @Benchmark
+    public MatchProbability poissonMatchProbability() {
+        return poisson.getMatchProbability(fixtures.get(0), history);
+    }
+
+    @Benchmark
+    public List<MatchProbability> poissonMatchesProbabilities() {
+        return poisson.getMatchesProbabilities(fixtures, history);
+    }
+
+    @Benchmark
+    public List<MatchProbability> eloMatchesProbabilities() {
+        // A new calculator every time, otherwise the ratings would only be calculated once.
+        return new EloCalculator().getMatchesProbabilities(fixtures, history);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import me.victorsantiago.footballprobabilitymodel.calculator.impl.PoissonCalculator;
+import me.victorsantiago.footballprobabilitymodel.model.League;
+import me.victorsantiago.footballprobabilitymodel.model.LeagueMetrics;
+import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.model.MatchProbability;
+import me.victorsantiago.footballprobabilitymodel.model.StandingsTable;
+import me.victorsantiago.footballprobabilitymodel.simulation.LiveSeason;
+import me.victorsantiago.footballprobabilitymodel.simulation.Simulation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Applying a single live result to simulated seasons, against simulating the rest of the season again.
+ * Half of the sample's last league is played, and the result of the next fixture arrives.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LiveSeasonBenchmark {
+
+    private static final long SEED = 42L;
+
+    @Param({"1000", "10000"})
+    private int simulations;
+
+    private Simulation simulation;
+    private League league;
+    private StandingsTable table;
+    private int[] fixtures;
+    private List<MatchProbability> probabilities;
+    private LiveSeason liveSeason;
+    private Match nextMatch;
+
+    @Setup
+    public void setup() throws IOException {
+        final PoissonCalculator calculator = new PoissonCalculator();
+        List<League> leagues = BenchmarkData.getLeagues();
+        league = leagues.get(leagues.size() - 1);
+        List<Match> history = BenchmarkData.getHistoryBefore(BenchmarkData.getSortedMatches(),
+                league.getMatches().get(0).getDate(), 380);
+
+        final List<Match> matches = league.getMatches();
+        final int played = matches.size() / 2;
+        table = StandingsTable.of(matches);
+        for (int fixture = 0; fixture < played; fixture++) {
+            table.addResult(fixture, matches.get(fixture).getHomeGoals(), matches.get(fixture).getAwayGoals());
+        }
+        table.setBaseline();
+
+        simulation = new Simulation(calculator);
+        fixtures = IntStream.range(played, matches.size()).toArray();
+        probabilities = calculator.getMatchesProbabilities(matches.subList(played, matches.size()), history);
+        nextMatch = matches.get(played);
+    }
+
+    @Setup(Level.Invocation)
+    public void simulateLive() {
+        liveSeason = simulation.simulateLive(league.getName(), table, fixtures, probabilities, simulations, SEED);
+    }
+
+    @Benchmark
+    public LeagueMetrics applyLiveResult() {
+        liveSeason.setResult(nextMatch);
+        return liveSeason.getMetrics();
+    }
+
+    @Benchmark
+    public LeagueMetrics fullRerun() {
+        StandingsTable withResult = table.copy();
+        withResult.addResult(fixtures[0], nextMatch.getHomeGoals(), nextMatch.getAwayGoals());
+        withResult.setBaseline();
+
+        return new LeagueMetrics(league.getName(), simulation.simulateSeasons(withResult,
+                IntStream.range(1, fixtures.length).map(slot -> fixtures[slot]).toArray(),
+                probabilities.subList(1, probabilities.size()), simulations, SEED));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import me.victorsantiago.footballprobabilitymodel.calculator.impl.PoissonCalculator;
+import me.victorsantiago.footballprobabilitymodel.metrics.MetricsOptions;
+import me.victorsantiago.footballprobabilitymodel.metrics.impl.BrazilianChampionshipMetrics;
+import me.victorsantiago.footballprobabilitymodel.model.League;
+import me.victorsantiago.footballprobabilitymodel.model.LeagueMetrics;
+import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.simulation.Simulation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Metrics of every league in the sample that has history, with a growing number of workers in the pool.
+ * Compare the scores across parallelism levels to see how the scheduler scales.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MetricsSchedulerBenchmark {
+
+    private static final int HISTORY_LIMIT = 380;
+    private static final long SEED = 42L;
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    @Param({"10000"})
+    private int simulations;
+
+    @Param({"STREAMING", "MATERIALIZED"})
+    private MetricsOptions.Mode mode;
+
+    private BrazilianChampionshipMetrics metrics;
+    private List<Match> matches;
+    private List<League> leagues;
+    private MetricsOptions options;
+
+    @Setup
+    public void setup() throws IOException {
+        metrics = new BrazilianChampionshipMetrics(new Simulation(new PoissonCalculator()));
+        matches = BenchmarkData.getSortedMatches();
+        // Leagues without earlier matches in the sample have no history to calculate probabilities from
+        final Match first = matches.get(0);
+        leagues = BenchmarkData.getLeagues().stream()
+                               .filter(league -> league.getMatches().stream().allMatch(match -> match.compareTo(first) > 0))
+                               .collect(Collectors.toList());
+        options = MetricsOptions.builder()
+                                .mode(mode)
+                                .parallelism(parallelism)
+                                .seed(SEED)
+                                .build();
+    }
+
+    @Benchmark
+    public Map<League, LeagueMetrics> allLeagues() {
+        return metrics.generate(matches, HISTORY_LIMIT, leagues, simulations, options);
+    }
+}
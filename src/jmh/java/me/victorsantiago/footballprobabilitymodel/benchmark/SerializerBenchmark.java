@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import me.victorsantiago.footballprobabilitymodel.model.League;
+import me.victorsantiago.footballprobabilitymodel.store.impl.BinaryMatchStore;
+import me.victorsantiago.footballprobabilitymodel.store.impl.InMemoryMatchStore;
+import me.victorsantiago.footballprobabilitymodel.store.impl.StreamingJsonLoader;
+import me.victorsantiago.footballprobabilitymodel.util.SerializerUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loading the sample's matches with each of the readers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SerializerBenchmark {
+
+    private final StreamingJsonLoader loader = new StreamingJsonLoader();
+
+    private Path binaryFile;
+
+    @Setup
+    public void setup() throws IOException {
+        binaryFile = Files.createTempFile("matches", ".bin");
+        BinaryMatchStore.convert(binaryFile, BenchmarkData.SAMPLE);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(binaryFile);
+    }
+
+    @Benchmark
+    public List<League> getLeagues() throws IOException {
+        return SerializerUtil.getLeagues(BenchmarkData.SAMPLE);
+    }
+
+    @Benchmark
+    public InMemoryMatchStore streamingLoad() throws IOException {
+        return loader.load(BenchmarkData.SAMPLE);
+    }
+
+    @Benchmark
+    public long binaryScan() throws IOException {
+        BinaryMatchStore store = BinaryMatchStore.open(binaryFile);
+        long goals = 0;
+
+        for (int match = 0; match < store.getNumberOfMatches(); match++) {
+            goals += store.getHomeGoals(match) + store.getAwayGoals(match);
+        }
+
+        return goals;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import me.victorsantiago.footballprobabilitymodel.calculator.impl.PoissonCalculator;
+import me.victorsantiago.footballprobabilitymodel.model.League;
+import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.model.MatchProbability;
+import me.victorsantiago.footballprobabilitymodel.model.PositionCounts;
+import me.victorsantiago.footballprobabilitymodel.model.SimulatedMatch;
+import me.victorsantiago.footballprobabilitymodel.model.SimulationResult;
+import me.victorsantiago.footballprobabilitymodel.model.StandingsTable;
+import me.victorsantiago.footballprobabilitymodel.simulation.Simulation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Simulating a whole league N times, from the sample's first league and the matches before it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SimulationBenchmark {
+
+    private static final long SEED = 42L;
+
+    @Param({"100", "1000", "10000"})
+    private int simulations;
+
+    @Param({"5", "10"})
+    private int goalLimit;
+
+    @Param({"380"})
+    private int historySize;
+
+    private Simulation simulation;
+    private League league;
+    private List<Match> history;
+    private List<MatchProbability> probabilities;
+    private StandingsTable table;
+
+    @Setup
+    public void setup() throws IOException {
+        final PoissonCalculator calculator = new PoissonCalculator(goalLimit);
+        List<League> leagues = BenchmarkData.getLeagues();
+        league = leagues.get(leagues.size() - 1);
+        history = BenchmarkData.getHistoryBefore(BenchmarkData.getSortedMatches(),
+                league.getMatches().get(0).getDate(), historySize);
+
+        simulation = new Simulation(calculator);
+        probabilities = calculator.getMatchesProbabilities(league.getMatches(), history);
+        table = StandingsTable.of(league.getMatches());
+    }
+
+    @Benchmark
+    public Map<Match, SimulatedMatch[]> simulate() {
+        return simulation.simulate(league.getName(), league.getMatches(), history, simulations);
+    }
+
+    @Benchmark
+    public SimulationResult simulateFromProbabilities() {
+        return simulation.simulateFromProbabilities(league.getName(), league.getMatches(), probabilities,
+                simulations, SEED);
+    }
+
+    @Benchmark
+    public PositionCounts simulateSeasons() {
+        return simulation.simulateSeasons(table, probabilities, simulations, SEED);
+    }
+}
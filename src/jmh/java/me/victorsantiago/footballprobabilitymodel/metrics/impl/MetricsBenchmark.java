@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.metrics.impl;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import me.victorsantiago.footballprobabilitymodel.benchmark.BenchmarkData;
+import me.victorsantiago.footballprobabilitymodel.calculator.impl.PoissonCalculator;
+import me.victorsantiago.footballprobabilitymodel.model.League;
+import me.victorsantiago.footballprobabilitymodel.model.LeagueMetrics;
+import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.model.MatchProbability;
+import me.victorsantiago.footballprobabilitymodel.model.SimulatedMatch;
+import me.victorsantiago.footballprobabilitymodel.model.Standing;
+import me.victorsantiago.footballprobabilitymodel.model.StandingsTable;
+import me.victorsantiago.footballprobabilitymodel.simulation.Simulation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Standings of a whole league and the merge of batch metrics.
+ * It lives in the metrics package to reach {@link BrazilianChampionshipMetrics#generateStandings(List)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MetricsBenchmark {
+
+    @Param({"10", "100"})
+    private int batches;
+
+    @Param({"100"})
+    private int simulationsPerBatch;
+
+    private BrazilianChampionshipMetrics metrics;
+    private List<SimulatedMatch> season;
+    private List<LeagueMetrics> batchMetrics;
+
+    @Setup
+    public void setup() throws IOException {
+        final Simulation simulation = new Simulation(new PoissonCalculator());
+        final League league = BenchmarkData.getLeagues().get(0);
+        final List<MatchProbability> probabilities = new PoissonCalculator().getMatchesProbabilities(
+                league.getMatches(), BenchmarkData.getSortedMatches());
+        final StandingsTable table = StandingsTable.of(league.getMatches());
+
+        metrics = new BrazilianChampionshipMetrics(simulation);
+
+        season = new ArrayList<>();
+        for (int fixture = 0; fixture < league.getMatches().size(); fixture++) {
+            final Match match = league.getMatches().get(fixture);
+            season.add(new SimulatedMatch("", fixture, league.getName(), Instant.now(), match.getHome(),
+                    match.getAway(), match.getHomeGoals(), match.getAwayGoals(), match.getDate()));
+        }
+
+        batchMetrics = new ArrayList<>();
+        for (int batch = 0; batch < batches; batch++) {
+            batchMetrics.add(new LeagueMetrics(league.getName(),
+                    simulation.simulateSeasons(table, probabilities, simulationsPerBatch, batch)));
+        }
+    }
+
+    @Benchmark
+    public List<Standing> generateStandings() {
+        return metrics.generateStandings(season);
+    }
+
+    @Benchmark
+    public LeagueMetrics mergeLeagueMetrics() {
+        return new LeagueMetrics(batchMetrics);
+    }
+}
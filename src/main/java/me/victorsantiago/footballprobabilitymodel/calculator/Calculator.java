@@ -22,13 +22,42 @@
 package me.victorsantiago.footballprobabilitymodel.calculator;
 
 import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.model.MatchHistoryIndex;
 import me.victorsantiago.footballprobabilitymodel.model.MatchProbability;
 
 import java.util.List;
 
 public interface Calculator {
 
+    /**
+     * Name and description of the telemetry timer the implementations record their calculations to.
+     */
+    String PROBABILITIES_TIMER = "fpm_calculator_probabilities_seconds";
+    String PROBABILITIES_TIMER_HELP = "Time spent calculating match probabilities.";
+
     List<MatchProbability> getMatchesProbabilities(List<Match> futureMatches, List<Match> pastMatches);
 
     MatchProbability getMatchProbability(Match match, List<Match> pastMatches);
+
+    /**
+     * Calculates the probabilities of a match using the window [from, to) of an indexed history as past matches.
+     * Calculators that can read their inputs straight from the index should override this.
+     *
+     * @param match The match to calculate the probabilities for.
+     * @param history The indexed history.
+     * @param from First position of the window, inclusive.
+     * @param to Last position of the window, exclusive.
+     * @return The probability of each score.
+     */
+    default MatchProbability getMatchProbability(Match match, MatchHistoryIndex history, int from, int to) {
+        return getMatchProbability(match, history.getMatches(from, to));
+    }
+
+    /**
+     * Describes every setting that changes the probabilities this calculator returns,
+     * so results from differently configured calculators are never mixed up.
+     */
+    default String getConfiguration() {
+        return getClass().getName();
+    }
 }
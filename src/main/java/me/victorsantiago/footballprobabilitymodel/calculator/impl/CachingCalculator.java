@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.calculator.impl;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import lombok.Value;
+
+import me.victorsantiago.footballprobabilitymodel.calculator.Calculator;
+import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.model.MatchHistoryIndex;
+import me.victorsantiago.footballprobabilitymodel.model.MatchProbability;
+import me.victorsantiago.footballprobabilitymodel.telemetry.Telemetry;
+
+/**
+ * Size-bounded cache in front of another calculator.
+ *
+ * Probabilities are keyed by the teams, a fingerprint of the past matches and the calculator's configuration,
+ * and the least recently used ones are evicted first.
+ * Only wrap calculators whose results depend on the match and past matches alone,
+ * since stateful ones (like the {@link EloCalculator}) would have their updates skipped.
+ *
+ * The cache statistics can be exported as {@link Telemetry} gauges with {@link #registerGauges(Telemetry, String)}.
+ */
+public class CachingCalculator implements Calculator {
+
+    private final Calculator calculator;
+    private final Cache<Key, MatchProbability> cache;
+
+    public CachingCalculator(Calculator calculator, long maximumSize) {
+        this.calculator = calculator;
+        this.cache = CacheBuilder.newBuilder()
+                                 .maximumSize(maximumSize)
+                                 .recordStats()
+                                 .build();
+    }
+
+    @Override
+    public List<MatchProbability> getMatchesProbabilities(List<Match> futureMatches, List<Match> pastMatches) {
+        final long fingerprint = MatchHistoryIndex.getFingerprint(pastMatches);
+        final List<MatchProbability> probabilities = new ArrayList<>(futureMatches.size());
+        final List<Key> missingKeys = new ArrayList<>();
+        final List<Match> misses = new ArrayList<>();
+
+        for (Match match : futureMatches) {
+            final Key key = getKey(match, fingerprint, pastMatches.size());
+            final MatchProbability probability = cache.getIfPresent(key);
+
+            if (probability == null) {
+                missingKeys.add(key);
+                misses.add(match);
+            }
+
+            probabilities.add(probability);
+        }
+
+        if (misses.isEmpty()) {
+            return probabilities;
+        }
+
+        // Misses go to the calculator in a single call, so it can share its work (e.g. team strengths) between them
+        final List<MatchProbability> calculated = calculator.getMatchesProbabilities(misses, pastMatches);
+
+        int miss = 0;
+        for (int position = 0; position < probabilities.size(); position++) {
+            if (probabilities.get(position) == null) {
+                cache.put(missingKeys.get(miss), calculated.get(miss));
+                probabilities.set(position, calculated.get(miss++));
+            }
+        }
+
+        return probabilities;
+    }
+
+    @Override
+    public MatchProbability getMatchProbability(Match match, List<Match> pastMatches) {
+        final long fingerprint = MatchHistoryIndex.getFingerprint(pastMatches);
+        return get(getKey(match, fingerprint, pastMatches.size()),
+                () -> calculator.getMatchProbability(match, pastMatches));
+    }
+
+    @Override
+    public MatchProbability getMatchProbability(Match match, MatchHistoryIndex history, int from, int to) {
+        final long fingerprint = history.getFingerprint(from, to);
+        return get(getKey(match, fingerprint, to - from),
+                () -> calculator.getMatchProbability(match, history, from, to));
+    }
+
+    @Override
+    public String getConfiguration() {
+        return calculator.getConfiguration();
+    }
+
+    /**
+     * @return Hit, miss and eviction counters of the cache.
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Exports the hit, miss, eviction and size counts of the cache as gauges labelled with the cache's name.
+     * The registry holds on to the cache from then on, so only register long-lived caches, each under its own name;
+     * registering another cache under the same name replaces its gauges.
+     */
+    public void registerGauges(Telemetry telemetry, String cacheName) {
+        telemetry.gauge("fpm_cache_hits", "Probabilities found in the cache.",
+                () -> cache.stats().hitCount(), "cache", cacheName);
+        telemetry.gauge("fpm_cache_misses", "Probabilities missing from the cache.",
+                () -> cache.stats().missCount(), "cache", cacheName);
+        telemetry.gauge("fpm_cache_evictions", "Probabilities evicted from the cache.",
+                () -> cache.stats().evictionCount(), "cache", cacheName);
+        telemetry.gauge("fpm_cache_size", "Probabilities currently in the cache.",
+                cache::size, "cache", cacheName);
+    }
+
+    private Key getKey(Match match, long fingerprint, int numberOfPastMatches) {
+        return new Key(match.getHome(), match.getAway(), fingerprint, numberOfPastMatches,
+                calculator.getConfiguration());
+    }
+
+    private MatchProbability get(Key key, Callable<MatchProbability> loader) {
+        try {
+            return cache.get(key, loader);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException("Could not calculate the match probability.", e.getCause());
+        }
+    }
+
+    @Value
+    private static class Key {
+        private final String home;
+        private final String away;
+        private final long historyFingerprint;
+        private final int numberOfPastMatches;
+        private final String configuration;
+    }
+}
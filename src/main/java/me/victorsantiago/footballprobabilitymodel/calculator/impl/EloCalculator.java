@@ -24,20 +24,34 @@ package me.victorsantiago.footballprobabilitymodel.calculator.impl;
 import com.google.common.annotations.VisibleForTesting;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 
 import me.victorsantiago.footballprobabilitymodel.calculator.Calculator;
+import me.victorsantiago.footballprobabilitymodel.model.EloRatingHistory;
 import me.victorsantiago.footballprobabilitymodel.model.Match;
 import me.victorsantiago.footballprobabilitymodel.model.MatchProbability;
+import me.victorsantiago.footballprobabilitymodel.model.TeamRegistry;
+import me.victorsantiago.footballprobabilitymodel.telemetry.Telemetry;
+import me.victorsantiago.footballprobabilitymodel.telemetry.Timer;
 
 /**
  * We're assuming all matches already come with a pre-defined K, and are all sorted.
+ * Ratings are kept in an array indexed by the teams' {@link TeamRegistry} ids.
+ *
+ * Matches are applied incrementally: the calculator keeps the date of the last match it applied,
+ * and only goes over the matches from that date on. Matches older than that are ignored,
+ * since their ratings were already taken into account.
  */
 @Data
 @RequiredArgsConstructor
@@ -45,18 +59,43 @@ public class EloCalculator implements Calculator {
 
     private static final double DEFAULT_INITIAL_ELO_RATING = 1500;
 
-    private Map<String, Double> ratings;
-    private Set<Match> alreadyCalculated;
+    private static final Timer PROBABILITIES_TIMER = Telemetry.getInstance().timer(
+            Calculator.PROBABILITIES_TIMER, Calculator.PROBABILITIES_TIMER_HELP, "calculator", "elo");
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile double[] ratings = new double[0];
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final Watermark watermark = new Watermark();
+
     private final double initialEloRating;
 
     public EloCalculator() {
-        ratings = new ConcurrentHashMap<>();
-        alreadyCalculated = ConcurrentHashMap.newKeySet();
         initialEloRating = DEFAULT_INITIAL_ELO_RATING;
     }
 
+    /**
+     * @return The current rating of every team that played so far, by team name.
+     */
+    public Map<String, Double> getRatings() {
+        final double[] current = ratings;
+        final TeamRegistry registry = TeamRegistry.getInstance();
+        Map<String, Double> response = new HashMap<>();
+
+        for (int team = 0; team < current.length; team++) {
+            if (!Double.isNaN(current[team])) {
+                response.put(registry.getName(team), current[team]);
+            }
+        }
+
+        return response;
+    }
+
     @Override
     public List<MatchProbability> getMatchesProbabilities(List<Match> futureMatches, List<Match> pastMatches) {
+        final long start = PROBABILITIES_TIMER.start();
         calculateRatings(pastMatches);
 
         List<MatchProbability> response = new ArrayList<>();
@@ -65,18 +104,22 @@ public class EloCalculator implements Calculator {
             response.add(getMatchProbability(match));
         }
 
+        PROBABILITIES_TIMER.stop(start);
         return response;
     }
 
     @Override
     public MatchProbability getMatchProbability(Match match, List<Match> pastMatches) {
+        final long start = PROBABILITIES_TIMER.start();
         calculateRatings(pastMatches);
-        return getMatchProbability(match);
+        final MatchProbability probability = getMatchProbability(match);
+        PROBABILITIES_TIMER.stop(start);
+        return probability;
     }
 
     private MatchProbability getMatchProbability(Match match) {
-        final double homeWinProbability = getWinningExpectancy(match.getHome(), match.getAway());
-        final double awayWinProbability = getWinningExpectancy(match.getAway(), match.getHome());
+        final double homeWinProbability = getWinningExpectancy(match.getHomeId(), match.getAwayId());
+        final double awayWinProbability = getWinningExpectancy(match.getAwayId(), match.getHomeId());
 
         final double[][] scoreProbability = new double[2][2];
         scoreProbability[1][0] = homeWinProbability;
@@ -89,17 +132,54 @@ public class EloCalculator implements Calculator {
                                .build();
     }
 
-    private void calculateRatings(List<Match> matches) {
-        matches.forEach(match -> {
-            if (!alreadyCalculated.contains(match)) {
+    /**
+     * Replays a list of matches from scratch, keeping the ratings after every one of them,
+     * so ratings as of any date can be looked up later. The ratings of this calculator are left untouched.
+     *
+     * @param matches Matches in chronological order.
+     * @return The rating history of the matches.
+     */
+    public EloRatingHistory getRatingHistory(List<Match> matches) {
+        final EloCalculator replay = new EloCalculator(initialEloRating);
+        final int[] days = new int[matches.size()];
+        final int[] homeTeams = new int[matches.size()];
+        final double[] homeRatings = new double[matches.size()];
+        final int[] awayTeams = new int[matches.size()];
+        final double[] awayRatings = new double[matches.size()];
+
+        Match match;
+        for (int position = 0; position < matches.size(); position++) {
+            match = matches.get(position);
+            replay.updateRatings(match);
+
+            days[position] = match.getEpochDay();
+            homeTeams[position] = match.getHomeId();
+            homeRatings[position] = replay.ratings[match.getHomeId()];
+            awayTeams[position] = match.getAwayId();
+            awayRatings[position] = replay.ratings[match.getAwayId()];
+        }
+
+        return new EloRatingHistory(initialEloRating, days, homeTeams, homeRatings, awayTeams, awayRatings);
+    }
+
+    private synchronized void calculateRatings(List<Match> matches) {
+        if (matches.isEmpty() || watermark.isLastApplied(matches.get(matches.size() - 1))) {
+            return;
+        }
+
+        Match match;
+        for (int position = watermark.indexOf(matches); position < matches.size(); position++) {
+            match = matches.get(position);
+
+            if (watermark.apply(match)) {
                 updateRatings(match);
             }
-        });
+        }
     }
 
     private void updateRatings(Match match) {
-        String home = match.getHome();
-        String away = match.getAway();
+        final int home = match.getHomeId();
+        final int away = match.getAwayId();
 
         double diffHome = getPointsDifference(match, true);
         double diffAway = getPointsDifference(match, false);
@@ -107,19 +187,18 @@ public class EloCalculator implements Calculator {
         double newRatingHome = getNewRating(diffHome, home);
         double newRatingAway = getNewRating(diffAway, away);
 
-        ratings.put(home, newRatingHome);
-        ratings.put(away, newRatingAway);
-
-        alreadyCalculated.add(match);
+        ensureCapacity(Math.max(home, away) + 1);
+        ratings[home] = newRatingHome;
+        ratings[away] = newRatingAway;
     }
 
-    private double getNewRating(double pointDiff, String team) {
-        return ratings.getOrDefault(team, initialEloRating) + pointDiff;
+    private double getNewRating(double pointDiff, int team) {
+        return getRating(ratings, team) + pointDiff;
     }
 
     private double getPointsDifference(Match match, boolean home) {
-        String a = home ? match.getHome() : match.getAway();
-        String b = !home ? match.getHome() : match.getAway();
+        int a = home ? match.getHomeId() : match.getAwayId();
+        int b = !home ? match.getHomeId() : match.getAwayId();
 
         double goalDifferenceIndex = getGoalDifferenceIndex(match);
         double matchResultValue = getMatchResultValue(match, home);
@@ -162,11 +241,92 @@ public class EloCalculator implements Calculator {
 
     @VisibleForTesting
     double getWinningExpectancy(String a, String b) {
+        final TeamRegistry registry = TeamRegistry.getInstance();
+        return getWinningExpectancy(registry.getId(a), registry.getId(b));
+    }
+
+    private double getWinningExpectancy(int a, int b) {
         return 1.00 / (Math.pow(10.00, (-getRatingDifference(a, b) / 400.00)) + 1.00);
     }
 
-    private double getRatingDifference(String a, String b) {
-        return ratings.getOrDefault(a, initialEloRating) - ratings.getOrDefault(b, initialEloRating);
+    private double getRatingDifference(int a, int b) {
+        final double[] current = ratings;
+        return getRating(current, a) - getRating(current, b);
     }
 
+    private double getRating(double[] current, int team) {
+        return team < current.length && !Double.isNaN(current[team]) ? current[team] : initialEloRating;
+    }
+
+    private void ensureCapacity(int numberOfTeams) {
+        if (numberOfTeams <= ratings.length) {
+            return;
+        }
+
+        final int previousLength = ratings.length;
+        double[] grown = Arrays.copyOf(ratings, Math.max(numberOfTeams, TeamRegistry.getInstance().size()));
+        Arrays.fill(grown, previousLength, grown.length, Double.NaN);
+        ratings = grown;
+    }
+
+    /**
+     * Date of the last applied match, plus the matches applied on that date,
+     * so matches sharing it aren't applied twice.
+     * It never holds more than one date's worth of matches.
+     */
+    private static class Watermark {
+        private long date = Long.MIN_VALUE;
+        private final Set<Match> appliedOnDate = new HashSet<>();
+        private Match lastApplied;
+
+        private boolean isLastApplied(Match match) {
+            return match == lastApplied || match.equals(lastApplied);
+        }
+
+        /**
+         * @return The position of the first match played on or after the watermark date.
+         */
+        private int indexOf(List<Match> matches) {
+            int low = 0;
+            int high = matches.size();
+
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+
+                if (getTime(matches.get(middle)) < date) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+
+        /**
+         * Moves the watermark to the given match.
+         *
+         * @return Whether the match is new and its ratings should be updated.
+         */
+        private boolean apply(Match match) {
+            final long time = getTime(match);
+
+            if (time < date || (time == date && appliedOnDate.contains(match))) {
+                return false;
+            }
+
+            if (time > date) {
+                date = time;
+                appliedOnDate.clear();
+            }
+
+            appliedOnDate.add(match);
+            lastApplied = match;
+            return true;
+        }
+
+        private static long getTime(Match match) {
+            return match.getDate() == null ? Long.MIN_VALUE : match.getDate().getTime();
+        }
+    }
 }
@@ -25,13 +25,15 @@ import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import me.victorsantiago.footballprobabilitymodel.calculator.Calculator;
 import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.model.MatchHistoryIndex;
 import me.victorsantiago.footballprobabilitymodel.model.MatchProbability;
+import me.victorsantiago.footballprobabilitymodel.model.TeamGoalStats;
+import me.victorsantiago.footballprobabilitymodel.model.TeamRegistry;
+import me.victorsantiago.footballprobabilitymodel.telemetry.Telemetry;
+import me.victorsantiago.footballprobabilitymodel.telemetry.Timer;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.ToIntFunction;
-
-import static java.util.stream.Collectors.toList;
 
 import com.google.common.annotations.VisibleForTesting;
 
@@ -45,6 +47,12 @@ public class PoissonCalculator implements Calculator {
 
     private static final int DEFAULT_GOAL_LIMIT = 5;
 
+    // Above this, e^-expected underflows and the probabilities have to be calculated in log space.
+    private static final double LOG_SPACE_THRESHOLD = 700.0;
+
+    private static final Timer PROBABILITIES_TIMER = Telemetry.getInstance().timer(
+            Calculator.PROBABILITIES_TIMER, Calculator.PROBABILITIES_TIMER_HELP, "calculator", "poisson");
+
     private final int goalLimit;
 
     public  PoissonCalculator() {
@@ -53,30 +61,60 @@ public class PoissonCalculator implements Calculator {
 
     @Override
     public List<MatchProbability> getMatchesProbabilities(List<Match> futureMatches, List<Match> pastMatches) {
+        final long start = PROBABILITIES_TIMER.start();
+        final TeamGoalStats stats = TeamGoalStats.of(pastMatches);
         List<MatchProbability> probabilities = new ArrayList<>();
 
         for (Match match : futureMatches) {
-            probabilities.add(getMatchProbability(match, pastMatches));
+            probabilities.add(getMatchProbability(match, stats));
         }
 
+        PROBABILITIES_TIMER.stop(start);
         return probabilities;
     }
 
     @Override
     public MatchProbability getMatchProbability(Match match, List<Match> pastMatches) {
-        final double expectedNumberOfHomeGoals = getExpectedHomeTeamGoals(match.getHome(), match.getAway(), pastMatches);
-        final double expectedNumberOfAwayGoals = getExpectedAwayTeamGoals(match.getHome(), match.getAway(), pastMatches);
+        final long start = PROBABILITIES_TIMER.start();
+        final MatchProbability probability = getMatchProbability(match, TeamGoalStats.of(pastMatches));
+        PROBABILITIES_TIMER.stop(start);
+        return probability;
+    }
+
+    @Override
+    public MatchProbability getMatchProbability(Match match, MatchHistoryIndex history, int from, int to) {
+        final long start = PROBABILITIES_TIMER.start();
+        final MatchProbability probability = getMatchProbability(match,
+                history.getStats(from, to, match.getHomeId(), match.getAwayId()));
+        PROBABILITIES_TIMER.stop(start);
+        return probability;
+    }
+
+    @Override
+    public String getConfiguration() {
+        return getClass().getName() + "(goalLimit=" + goalLimit + ")";
+    }
+
+    /**
+     * Calculates the score probabilities of a match from goal aggregates built beforehand,
+     * so many matches can share the same pass over the past matches.
+     *
+     * @param match The match to calculate the probabilities for.
+     * @param stats Goal aggregates of the past matches.
+     * @return The probability of each score.
+     */
+    public MatchProbability getMatchProbability(Match match, TeamGoalStats stats) {
+        final double expectedNumberOfHomeGoals = getExpectedHomeTeamGoals(match.getHomeId(), match.getAwayId(), stats);
+        final double expectedNumberOfAwayGoals = getExpectedAwayTeamGoals(match.getHomeId(), match.getAwayId(), stats);
+
+        final double[] homeGoalProbabilities = getPoissonProbabilities(expectedNumberOfHomeGoals, goalLimit);
+        final double[] awayGoalProbabilities = getPoissonProbabilities(expectedNumberOfAwayGoals, goalLimit);
 
         double[][] scoreProbabilities = new double[goalLimit + 1][goalLimit + 1];
 
-        double currentProbabilityForHome;
-        double currentProbabilityForAway;
         for (int homeGoal = 0; homeGoal < scoreProbabilities.length; homeGoal++) {
             for (int awayGoal = 0; awayGoal < scoreProbabilities[homeGoal].length; awayGoal++) {
-                currentProbabilityForHome = getPoissonProbability(homeGoal, expectedNumberOfHomeGoals);
-                currentProbabilityForAway = getPoissonProbability(awayGoal, expectedNumberOfAwayGoals);
-
-                scoreProbabilities[homeGoal][awayGoal] = currentProbabilityForHome * currentProbabilityForAway;
+                scoreProbabilities[homeGoal][awayGoal] = homeGoalProbabilities[homeGoal] * awayGoalProbabilities[awayGoal];
             }
         }
 
@@ -97,62 +135,78 @@ public class PoissonCalculator implements Calculator {
      */
     @VisibleForTesting
     double getPoissonProbability(int numberOfGoals, double expectedNumberOfGoals) {
-        return Math.pow(expectedNumberOfGoals, numberOfGoals) *
-                Math.pow(Math.E, -expectedNumberOfGoals) / factorial(numberOfGoals);
+        return getPoissonProbabilities(expectedNumberOfGoals, numberOfGoals)[numberOfGoals];
     }
 
     /**
-     * Simple factorial calculation.
-     * Considering it should only be used with the number of goals, we should be fine with ints.
+     * Calculates the probabilities of a team scoring from 0 up to N goals at once,
+     * using the recurrence P(k) = P(k - 1) * expected / k, so there are no powers or factorials to overflow.
+     * When e^-expected is too small to be represented, the same recurrence runs in log space.
      *
-     * @param n n!
-     * @return Factorial value of n.
+     * @param expectedNumberOfGoals The expected number of goals calculated previously.
+     * @param goalLimit The highest number of goals you want the probability for.
+     * @return The probability of scoring each number of goals, indexed by the number of goals.
      */
-    private int factorial(int n) {
-        if (n <= 1) {
-            return 1;
+    @VisibleForTesting
+    double[] getPoissonProbabilities(double expectedNumberOfGoals, int goalLimit) {
+        final double[] probabilities = new double[goalLimit + 1];
+
+        if (expectedNumberOfGoals < LOG_SPACE_THRESHOLD) {
+            probabilities[0] = Math.exp(-expectedNumberOfGoals);
+
+            for (int goals = 1; goals <= goalLimit; goals++) {
+                probabilities[goals] = probabilities[goals - 1] * expectedNumberOfGoals / goals;
+            }
+        } else {
+            final double logExpectedNumberOfGoals = Math.log(expectedNumberOfGoals);
+            double logProbability = -expectedNumberOfGoals;
+            probabilities[0] = Math.exp(logProbability);
+
+            for (int goals = 1; goals <= goalLimit; goals++) {
+                logProbability += logExpectedNumberOfGoals - Math.log(goals);
+                probabilities[goals] = Math.exp(logProbability);
+            }
         }
 
-        return n * factorial(n - 1);
+        return probabilities;
     }
 
     @VisibleForTesting
     double getExpectedHomeTeamGoals(String home, String away, List<Match> allMatches) {
-        double homeTeamAttackStrength = getHomeTeamsAttackStrength(home, allMatches);
-        double awayTeamDefensiveStrength = getAwayTeamsDefensiveStrength(away, allMatches);
+        return getExpectedHomeTeamGoals(getId(home), getId(away), TeamGoalStats.of(allMatches));
+    }
 
-        List<Match> homeTeamMatches = allMatches.stream().filter(x -> x.getHome().equals(home)).collect(toList());
-        double averageGoalsAtHome = getAverageGoalsScoredAtHome(homeTeamMatches);
+    private double getExpectedHomeTeamGoals(int home, int away, TeamGoalStats stats) {
+        double homeTeamAttackStrength = getHomeTeamsAttackStrength(home, stats);
+        double awayTeamDefensiveStrength = getAwayTeamsDefensiveStrength(away, stats);
+        double averageGoalsAtHome = stats.getAverageGoalsScoredAtHome(home);
 
         return homeTeamAttackStrength * awayTeamDefensiveStrength * averageGoalsAtHome;
     }
 
-    private double getExpectedAwayTeamGoals(String home, String away, List<Match> allMatches) {
-        double awayTeamAttackStrength = getAwayTeamsAttackStrength(away, allMatches);
-        double homeTeamDefensiveStrength = getHomeTeamsDefensiveStrength(home, allMatches);
-
-        List<Match> awayTeamMatches = allMatches.stream().filter(x -> x.getAway().equals(away)).collect(toList());
-        double averageGoalsAway = getAverageGoalsScoredAtHome(awayTeamMatches);
+    private double getExpectedAwayTeamGoals(int home, int away, TeamGoalStats stats) {
+        double awayTeamAttackStrength = getAwayTeamsAttackStrength(away, stats);
+        double homeTeamDefensiveStrength = getHomeTeamsDefensiveStrength(home, stats);
+        double averageGoalsAway = stats.getAverageGoalsConcealedAway(away);
 
         return awayTeamAttackStrength * homeTeamDefensiveStrength * averageGoalsAway;
     }
 
+    @VisibleForTesting
+    double getHomeTeamsAttackStrength(String homeTeam, List<Match> allMatches) {
+        return getHomeTeamsAttackStrength(getId(homeTeam), TeamGoalStats.of(allMatches));
+    }
+
     /**
      * Calculates the Home team's attack strength, given by:
      * (This team's average goals scored at home) / (All team's scored goals at home)
      *
      * @param homeTeam Target home team to get the attack strength.
-     * @param allMatches All league matches.
+     * @param stats Goal aggregates of all league matches.
      * @return Team's attack strength.
      */
-    @VisibleForTesting
-    double getHomeTeamsAttackStrength(String homeTeam, List<Match> allMatches) {
-        double allHomeTeamAverageGoals = getAverageGoalsScoredAtHome(allMatches);
-
-        List<Match> homeTeamMatches = allMatches.stream().filter(x -> x.getHome().equals(homeTeam)).collect(toList());
-        double targetHomeTeamAverageGoals = getAverageGoalsScoredAtHome(homeTeamMatches);
-
-        return targetHomeTeamAverageGoals / allHomeTeamAverageGoals;
+    private double getHomeTeamsAttackStrength(int homeTeam, TeamGoalStats stats) {
+        return stats.getAverageGoalsScoredAtHome(homeTeam) / stats.getAverageGoalsScoredAtHome();
     }
 
     /**
@@ -160,17 +214,16 @@ public class PoissonCalculator implements Calculator {
      * (This team's average goals scored away) / (All team's scored goals away)
      *
      * @param awayTeam Target away team to get the attack strength.
-     * @param allMatches All league matches.
+     * @param stats Goal aggregates of all league matches.
      * @return Team's attack strength.
      */
-    private double getAwayTeamsAttackStrength(String awayTeam, List<Match> allMatches) {
-        double allAwayTeamsAverageGoals = getAverageGoalsScoredAway(allMatches);
-
-        List<Match> awayTeamMatches = allMatches.stream().filter(x -> x.getAway().equals(awayTeam)).collect(toList());
-        double targetAwayTeamAverageGoals = getAverageGoalsScoredAway(awayTeamMatches);
-
-        return targetAwayTeamAverageGoals / allAwayTeamsAverageGoals;
+    private double getAwayTeamsAttackStrength(int awayTeam, TeamGoalStats stats) {
+        return stats.getAverageGoalsScoredAway(awayTeam) / stats.getAverageGoalsScoredAway();
+    }
 
+    @VisibleForTesting
+    double getHomeTeamsDefensiveStrength(String homeTeam, List<Match> allMatches) {
+        return getHomeTeamsDefensiveStrength(getId(homeTeam), TeamGoalStats.of(allMatches));
     }
 
     /**
@@ -178,17 +231,11 @@ public class PoissonCalculator implements Calculator {
      * (This team's average goals concealed at home) / (All team's concealed goals at home)
      *
      * @param homeTeam Target home team to get the defensive strength.
-     * @param allMatches All league matches.
+     * @param stats Goal aggregates of all league matches.
      * @return Team's defensive strength.
      */
-    @VisibleForTesting
-    double getHomeTeamsDefensiveStrength(String homeTeam, List<Match> allMatches) {
-        double allHomeTeamAverageGoals = getAverageGoalsConcealedAtHome(allMatches);
-
-        List<Match> homeTeamMatches = allMatches.stream().filter(x -> x.getHome().equals(homeTeam)).collect(toList());
-        double targetHomeTeamAverageGoals = getAverageGoalsConcealedAtHome(homeTeamMatches);
-
-        return targetHomeTeamAverageGoals / allHomeTeamAverageGoals;
+    private double getHomeTeamsDefensiveStrength(int homeTeam, TeamGoalStats stats) {
+        return stats.getAverageGoalsConcealedAtHome(homeTeam) / stats.getAverageGoalsConcealedAtHome();
     }
 
     /**
@@ -196,26 +243,21 @@ public class PoissonCalculator implements Calculator {
      * (This team's average goals concealed away) / (All team's concealed goals away)
      *
      * @param awayTeam Target away team to get the defensive strength.
-     * @param allMatches All league matches.
+     * @param stats Goal aggregates of all league matches.
      * @return Team's defensive strength.
      */
-    private double getAwayTeamsDefensiveStrength(String awayTeam, List<Match> allMatches) {
-        double allAwayTeamAverageGoals = getAverageGoalsConcealedAway(allMatches);
-
-        List<Match> awayTeamMatches = allMatches.stream().filter(x -> x.getAway().equals(awayTeam)).collect(toList());
-        double targetAwayTeamAverageGoals = getAverageGoalsConcealedAway(awayTeamMatches);
-
-        return targetAwayTeamAverageGoals / allAwayTeamAverageGoals;
+    private double getAwayTeamsDefensiveStrength(int awayTeam, TeamGoalStats stats) {
+        return stats.getAverageGoalsConcealedAway(awayTeam) / stats.getAverageGoalsConcealedAway();
     }
 
     @VisibleForTesting
     double getAverageGoalsScoredAtHome(List<Match> matches) {
-        return  getAverageGoals(matches, Match::getHomeGoals);
+        return TeamGoalStats.of(matches).getAverageGoalsScoredAtHome();
     }
 
     @VisibleForTesting
     double getAverageGoalsScoredAway(List<Match> matches) {
-        return  getAverageGoals(matches, Match::getAwayGoals);
+        return TeamGoalStats.of(matches).getAverageGoalsScoredAway();
     }
 
     @VisibleForTesting
@@ -225,16 +267,11 @@ public class PoissonCalculator implements Calculator {
 
     @VisibleForTesting
     double getAverageGoalsConcealedAway(List<Match> matches) {
-        return  getAverageGoalsScoredAtHome(matches);
+        return getAverageGoalsScoredAtHome(matches);
     }
 
-    private Double getAverageGoals(List<Match> matches, ToIntFunction<Match> mapper) {
-        if (matches.size() == 0) {
-            return 0.00;
-        }
-
-        double goalSum = matches.stream().mapToInt(mapper).sum();
-        return goalSum / matches.size();
+    private int getId(String team) {
+        return TeamRegistry.getInstance().getId(team);
     }
 
 }
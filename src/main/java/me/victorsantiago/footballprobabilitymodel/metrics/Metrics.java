@@ -24,9 +24,13 @@ package me.victorsantiago.footballprobabilitymodel.metrics;
 import me.victorsantiago.footballprobabilitymodel.model.League;
 import me.victorsantiago.footballprobabilitymodel.model.LeagueMetrics;
 import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.model.PositionCounts;
+import me.victorsantiago.footballprobabilitymodel.simulation.LiveSeason;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public interface Metrics {
 
@@ -45,7 +49,22 @@ public interface Metrics {
      * @param simulations Number of simulations for each match.
      * @return A Map containing each league and its metrics.
      */
-    Map<League, LeagueMetrics> generate(List<Match> allMatches, int historyLimit, List<League> leaguesToSimulate, int simulations);
+    default Map<League, LeagueMetrics> generate(List<Match> allMatches, int historyLimit, List<League> leaguesToSimulate, int simulations) {
+        return generate(allMatches, historyLimit, leaguesToSimulate, simulations, MetricsOptions.DEFAULT);
+    }
+
+    /**
+     * Same as {@link #generate(List, int, List, int)}, with custom settings for the simulations.
+     *
+     * @param allMatches Raw list of past matches that can be used.
+     * @param historyLimit Limit of matches to be used from the raw list. Use -1 to use all.
+     * @param leaguesToSimulate The leagues to be simulated.
+     * @param simulations Number of simulations for each match.
+     * @param options Settings for the simulations.
+     * @return A Map containing each league and its metrics.
+     */
+    Map<League, LeagueMetrics> generate(List<Match> allMatches, int historyLimit, List<League> leaguesToSimulate,
+                                        int simulations, MetricsOptions options);
 
     /**
      * Generate metrics for a list of leagues based on a raw list of matches,
@@ -62,5 +81,71 @@ public interface Metrics {
      * @param simulations Number of simulations for each match.
      * @return The metrics for the league.
      */
-    LeagueMetrics generate(List<Match> allMatches, int historyLimit, League leagueToSimulate, int simulations);
+    default LeagueMetrics generate(List<Match> allMatches, int historyLimit, League leagueToSimulate, int simulations) {
+        return generate(allMatches, historyLimit, leagueToSimulate, simulations, MetricsOptions.DEFAULT);
+    }
+
+    /**
+     * Same as {@link #generate(List, int, League, int)}, with custom settings for the simulations.
+     *
+     * @param allMatches All the past matches to be used as input data.
+     * @param historyLimit Limit of matches to be used from the raw list. Use -1 to use all.
+     * @param leagueToSimulate The league to be simulated.
+     * @param simulations Number of simulations for each match.
+     * @param options Settings for the simulations.
+     * @return The metrics for the league.
+     */
+    LeagueMetrics generate(List<Match> allMatches, int historyLimit, League leagueToSimulate, int simulations,
+                           MetricsOptions options);
+
+    /**
+     * Simulates a league and counts how many times each team finished in each position,
+     * without turning the counts into metrics. Counts from different runs of the same league
+     * can be merged exactly, so a league can be split into shards.
+     *
+     * @param allMatches All the past matches to be used as input data.
+     * @param historyLimit Limit of matches to be used from the raw list. Use -1 to use all.
+     * @param leagueToSimulate The league to be simulated.
+     * @param simulations Number of simulated seasons.
+     * @param seed Seed of the random streams.
+     * @return How many times each team finished in each position.
+     */
+    PositionCounts generatePositionCounts(List<Match> allMatches, int historyLimit, League leagueToSimulate,
+                                          int simulations, long seed);
+
+    /**
+     * Simulates a league and keeps the simulated seasons, so live results can be applied to them
+     * one at a time, updating the metrics without simulating every season again.
+     * Matches before the cutoff of the options keep their real results.
+     *
+     * @param allMatches All the past matches to be used as input data.
+     * @param historyLimit Limit of matches to be used from the raw list. Use -1 to use all.
+     * @param leagueToSimulate The league to be simulated.
+     * @param simulations Number of simulated seasons.
+     * @param options Settings for the simulations.
+     * @return The simulated seasons.
+     */
+    LiveSeason generateLiveSeason(List<Match> allMatches, int historyLimit, League leagueToSimulate, int simulations,
+                                  MetricsOptions options);
+
+    /**
+     * Same as {@link #generate(List, int, League, int, MetricsOptions)}, without blocking the caller.
+     * Every step runs on the given executor, in batches of the options' size, and never on the common pool.
+     * Batches are simulated in the options' mode, so with the same seed and no target standard error
+     * the metrics are the same as the blocking call's.
+     *
+     * Cancelling the returned future stops the run cooperatively: batches that haven't started are skipped.
+     *
+     * @param allMatches All the past matches to be used as input data.
+     * @param historyLimit Limit of matches to be used from the raw list. Use -1 to use all.
+     * @param leagueToSimulate The league to be simulated.
+     * @param simulations Number of simulations for each match.
+     * @param options Settings for the simulations.
+     * @param executor Executor every step runs on.
+     * @param listener Receives the progress after every batch.
+     * @return The metrics for the league, once every batch is done.
+     */
+    CompletableFuture<LeagueMetrics> generateAsync(List<Match> allMatches, int historyLimit, League leagueToSimulate,
+                                                   int simulations, MetricsOptions options, Executor executor,
+                                                   ProgressListener listener);
 }
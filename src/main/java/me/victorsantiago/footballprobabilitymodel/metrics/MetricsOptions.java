@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.metrics;
+
+import java.util.Date;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Settings for how {@link Metrics} run their simulations.
+ */
+@Value
+@Builder
+public class MetricsOptions {
+
+    public static final MetricsOptions DEFAULT = MetricsOptions.builder().build();
+
+    public static final int DEFAULT_MAX_SIMULATIONS = 1_000_000;
+    public static final int DEFAULT_BATCH_SIZE = 1_000;
+
+    public enum Mode {
+        /**
+         * Simulates every match in batches and keeps the whole batch in memory before counting positions.
+         */
+        MATERIALIZED,
+
+        /**
+         * Simulates whole seasons one at a time, folding each final table into position counters,
+         * so memory stays constant no matter how many simulations are requested.
+         */
+        STREAMING
+    }
+
+    @Builder.Default
+    private final Mode mode = Mode.MATERIALIZED;
+
+    /**
+     * Number of simulations in each batch, in either mode and in asynchronous runs too.
+     * Each batch is a single task on the pool or executor, so it sets how finely the work is spread over threads.
+     * In the {@link Mode#MATERIALIZED} mode, each batch also keeps all of its scores in memory while it's counted.
+     */
+    @Builder.Default
+    private final int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * Date the season is simulated from. Matches before it keep their real results in every simulated table,
+     * and only the ones from it on are simulated. Leave it empty to simulate the whole season.
+     */
+    private final Date cutoff;
+
+    /**
+     * Most threads simulating at the same time, across leagues, batches and matches.
+     */
+    @Builder.Default
+    private final int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Seed of the random streams. Runs with the same seed and inputs give the same metrics,
+     * whatever the parallelism. Leave it empty to use a different seed on every run.
+     */
+    private final Long seed;
+
+    /**
+     * Standard error every champion, high ranking and low ranking probability must reach.
+     * When set, simulations run in rounds of the requested size until the target or {@link #maxSimulations}
+     * is reached. Synchronous runs always stream seasons into position counters then, while asynchronous runs
+     * keep following the {@link #mode}. Leave it empty to run exactly the requested number.
+     */
+    private final Double targetStandardError;
+
+    /**
+     * Most simulations to run for a league while chasing the {@link #targetStandardError}.
+     */
+    @Builder.Default
+    private final int maxSimulations = DEFAULT_MAX_SIMULATIONS;
+
+    /**
+     * @return The seed for a single league, so every league gets its own streams, no matter which other leagues run.
+     */
+    public long getSeed(String leagueName) {
+        if (seed == null) {
+            return ThreadLocalRandom.current().nextLong();
+        }
+
+        return new SplittableRandom(seed ^ (leagueName.hashCode() * 0x9E3779B97F4A7C15L)).nextLong();
+    }
+
+    /**
+     * Checks the settings every run depends on, so synchronous and asynchronous runs reject the same options.
+     *
+     * @throws IllegalArgumentException If the batch size or maximum number of simulations isn't positive,
+     *                                  or the target standard error is set but isn't positive.
+     */
+    public void validate() {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive.");
+        }
+
+        if (maxSimulations <= 0) {
+            throw new IllegalArgumentException("Maximum number of simulations must be positive.");
+        }
+
+        if (targetStandardError != null && !(targetStandardError > 0.0)) {
+            throw new IllegalArgumentException("Target standard error must be positive.");
+        }
+    }
+}
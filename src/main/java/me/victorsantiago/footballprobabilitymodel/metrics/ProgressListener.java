@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.metrics;
+
+/**
+ * Receives the progress of metrics generated asynchronously, once for every batch that finishes.
+ * It's called from the executor's threads, so it should return quickly.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+    ProgressListener NONE = (leagueName, completedSimulations, totalSimulations) -> { };
+
+    /**
+     * @param leagueName The league being simulated.
+     * @param completedSimulations Simulations finished so far.
+     * @param totalSimulations Simulations planned so far. It grows while chasing a target standard error.
+     */
+    void onProgress(String leagueName, long completedSimulations, long totalSimulations);
+}
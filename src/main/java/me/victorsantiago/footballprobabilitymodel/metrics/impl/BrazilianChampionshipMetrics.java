@@ -22,220 +22,614 @@
 package me.victorsantiago.footballprobabilitymodel.metrics.impl;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.HashMultiset;
-import com.google.common.collect.Multiset;
+import com.google.common.base.Throwables;
 import com.google.inject.Inject;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 
 import me.victorsantiago.footballprobabilitymodel.metrics.Metrics;
+import me.victorsantiago.footballprobabilitymodel.metrics.MetricsOptions;
+import me.victorsantiago.footballprobabilitymodel.metrics.ProgressListener;
 import me.victorsantiago.footballprobabilitymodel.model.League;
 import me.victorsantiago.footballprobabilitymodel.model.LeagueMetrics;
 import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.model.MatchHistoryIndex;
+import me.victorsantiago.footballprobabilitymodel.model.MatchProbability;
+import me.victorsantiago.footballprobabilitymodel.model.PositionCounts;
+import me.victorsantiago.footballprobabilitymodel.model.ScoreSampler;
 import me.victorsantiago.footballprobabilitymodel.model.SimulatedMatch;
+import me.victorsantiago.footballprobabilitymodel.model.SimulationResult;
 import me.victorsantiago.footballprobabilitymodel.model.Standing;
-import me.victorsantiago.footballprobabilitymodel.model.Team;
+import me.victorsantiago.footballprobabilitymodel.model.StandingsTable;
+import me.victorsantiago.footballprobabilitymodel.simulation.LiveSeason;
 import me.victorsantiago.footballprobabilitymodel.simulation.Simulation;
+import me.victorsantiago.footballprobabilitymodel.telemetry.Histogram;
+import me.victorsantiago.footballprobabilitymodel.telemetry.Telemetry;
+import me.victorsantiago.footballprobabilitymodel.telemetry.Timer;
 
 @RequiredArgsConstructor(onConstructor = @__(@Inject))
 public class BrazilianChampionshipMetrics implements Metrics {
 
-    // TODO: Make it more customizable, either pass as a parameter or set in a config file.
-    private static final int METRICS_BATCH_SIZE = 100;
+    private static final String PHASE_TIMER = "fpm_metrics_phase_seconds";
+    private static final String PHASE_TIMER_HELP = "Time spent on each phase of a league's metrics.";
+    private static final Timer PROBABILITIES_TIMER = Telemetry.getInstance().timer(PHASE_TIMER, PHASE_TIMER_HELP,
+            "phase", "probabilities");
+    private static final Timer SIMULATION_TIMER = Telemetry.getInstance().timer(PHASE_TIMER, PHASE_TIMER_HELP,
+            "phase", "simulation");
+    private static final Timer AGGREGATION_TIMER = Telemetry.getInstance().timer(PHASE_TIMER, PHASE_TIMER_HELP,
+            "phase", "aggregation");
+    private static final Histogram SIMULATIONS_PER_SECOND = Telemetry.getInstance().histogram(
+            "fpm_league_simulations_per_second", "Seasons simulated per second, for each run of the metrics.", 100);
+    private static final double NANOS_PER_SECOND = 1e9;
 
     private final Simulation simulator;
 
     @Override
-    public Map<League, LeagueMetrics> generate(List<Match> allMatches, int historyLimit, List<League> leaguesToSimulate, int simulations) {
+    public Map<League, LeagueMetrics> generate(List<Match> allMatches, int historyLimit, List<League> leaguesToSimulate,
+                                               int simulations, MetricsOptions options) {
         Collections.sort(allMatches);
-        List<Match> pastMatches = Collections.synchronizedList(allMatches);
-        leaguesToSimulate = Collections.synchronizedList(leaguesToSimulate);
+        final MatchHistoryIndex history = MatchHistoryIndex.of(allMatches);
+        return runOnPool(options, () -> schedule(history, historyLimit, leaguesToSimulate, simulations, options));
+    }
 
-        Map<League, LeagueMetrics> results = new ConcurrentHashMap<>();
+    @Override
+    public LeagueMetrics generate(List<Match> allMatches, int historyLimit, League leagueToSimulate, int simulations,
+                                  MetricsOptions options) {
+        Collections.sort(allMatches);
+        final MatchHistoryIndex history = MatchHistoryIndex.of(allMatches);
+        return runOnPool(options, () -> schedule(history, historyLimit, Collections.singletonList(leagueToSimulate),
+                simulations, options)).get(leagueToSimulate);
+    }
 
-        leaguesToSimulate.parallelStream()
-                         .forEach(league -> results.put(league,
-                                 generateMetricsForLeague(pastMatches, historyLimit, league, simulations, METRICS_BATCH_SIZE)));
+    @Override
+    public PositionCounts generatePositionCounts(List<Match> allMatches, int historyLimit, League leagueToSimulate,
+                                                 int simulations, long seed) {
+        Collections.sort(allMatches);
+        final MatchHistoryIndex history = MatchHistoryIndex.of(allMatches);
+        final List<MatchProbability> probabilities = getLeagueProbabilities(history, historyLimit, leagueToSimulate);
 
-        return results;
+        return simulator.simulateSeasons(StandingsTable.of(leagueToSimulate.getMatches()), probabilities,
+                simulations, seed);
     }
 
     @Override
-    public LeagueMetrics generate(List<Match> allMatches, int historyLimit, League leagueToSimulate, int simulations) {
+    public LiveSeason generateLiveSeason(List<Match> allMatches, int historyLimit, League leagueToSimulate,
+                                         int simulations, MetricsOptions options) {
         Collections.sort(allMatches);
-        allMatches = Collections.synchronizedList(allMatches);
-        return generateMetricsForLeague(allMatches, historyLimit, leagueToSimulate, simulations, METRICS_BATCH_SIZE);
+        final MatchHistoryIndex history = MatchHistoryIndex.of(allMatches);
+        final Season season = getSeason(leagueToSimulate, options.getCutoff());
+        final List<MatchProbability> probabilities = getLeagueProbabilities(history, historyLimit, leagueToSimulate,
+                season.getFixtures());
+
+        return runOnPool(options, () -> simulator.simulateLive(leagueToSimulate.getName(), season.getTable(),
+                season.getFixtures(), probabilities, simulations, options.getSeed(leagueToSimulate.getName())));
+    }
+
+    @Override
+    public CompletableFuture<LeagueMetrics> generateAsync(List<Match> allMatches, int historyLimit,
+                                                          League leagueToSimulate, int simulations,
+                                                          MetricsOptions options, Executor executor,
+                                                          ProgressListener listener) {
+        if (simulations <= 0) {
+            throw new IllegalArgumentException("Number of simulations must be positive.");
+        }
+        options.validate();
+
+        final CompletableFuture<LeagueMetrics> result = new CompletableFuture<>();
+
+        CompletableFuture.runAsync(() -> {
+            Collections.sort(allMatches);
+            final MatchHistoryIndex history = MatchHistoryIndex.of(allMatches);
+            final Season season = getSeason(leagueToSimulate, options.getCutoff());
+
+            final long probabilitiesStart = PROBABILITIES_TIMER.start();
+            final List<MatchProbability> probabilities = getLeagueProbabilities(history, historyLimit,
+                    leagueToSimulate, season.getFixtures());
+            PROBABILITIES_TIMER.stop(probabilitiesStart);
+
+            new AsyncRun(leagueToSimulate.getName(), season, probabilities, simulations, options, executor, listener,
+                    result).startRound();
+        }, executor).whenComplete((ignored, e) -> {
+            if (e != null) {
+                result.completeExceptionally(e);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Runs a task on a pool bounded to the parallelism of the options.
+     * Parallel streams started by the task, including the simulations', run on the same pool.
+     */
+    private <T> T runOnPool(MetricsOptions options, Callable<T> task) {
+        final ForkJoinPool pool = new ForkJoinPool(options.getParallelism());
+
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating metrics.", e);
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException("Could not generate metrics.", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
     }
 
     /**
-     * Generates metrics for a league by breaking up the metrics into small batches,
-     * calculating the metrics for those small batches, and then unifying them.
+     * Splits every league into batches of seasons and runs all of them as a single flat list of tasks,
+     * instead of nesting leagues, batches and fixtures, so the pool's work stealing balances leagues
+     * of different sizes and each task is big enough to be worth forking. Each batch runs on a single thread,
+     * and the position counts of a league's batches are merged exactly, in any order.
+     *
+     * Leagues with a target standard error are simulated in rounds, one league per task, since each round
+     * depends on the previous one.
      *
-     * @param allMatches List of all past matches.
+     * @param history Index of all past matches.
      * @param historyLimit Limit of matches to be used from the raw list. Use -1 to use all.
-     * @param league League to be simulated.
+     * @param leagues Leagues to be simulated.
      * @param simulations Number of simulations to be made by match.
-     * @param batchSize Size of each individual simulation batch.
-     * @return The unified league metrics.
+     * @param options Settings for the simulations.
+     * @return The metrics of each league.
      */
-    private LeagueMetrics generateMetricsForLeague(List<Match> allMatches, int historyLimit, League league,
-                                                   int simulations, int batchSize) {
-        final Date firstMatchDate = league.getMatches().get(0).getDate();
-        final List<Match> limitedMatches = getLimitedMatchesBeforeDate(allMatches, firstMatchDate, historyLimit);
+    private Map<League, LeagueMetrics> schedule(MatchHistoryIndex history, int historyLimit, List<League> leagues,
+                                                int simulations, MetricsOptions options) {
+        options.validate();
+        Map<League, LeagueMetrics> results = new ConcurrentHashMap<>();
 
-        List<LeagueMetrics> batchOfMetrics = new ArrayList<>();
+        if (options.getTargetStandardError() != null) {
+            leagues.parallelStream()
+                   .forEach(league -> results.put(league,
+                           generateMetricsForLeague(history, historyLimit, league, simulations, options)));
+            return results;
+        }
 
-        while (simulations > 0) {
-            batchOfMetrics.add(generateMetricsForLeague(limitedMatches, league, simulations));
-            simulations -= batchSize;
+        final long start = System.nanoTime();
+        final List<LeagueBatch> batches = IntStream.range(0, leagues.size())
+                                                   .parallel()
+                                                   .mapToObj(index -> getBatches(history, historyLimit, index,
+                                                           leagues.get(index), simulations, options))
+                                                   .flatMap(List::stream)
+                                                   .collect(Collectors.toList());
+
+        // Keyed by the league's position in the list, since hashing a league goes over all of its matches
+        final Map<Integer, PositionCounts> counts = batches.parallelStream()
+                                                           .collect(Collectors.toConcurrentMap(
+                                                                   LeagueBatch::getLeagueIndex,
+                                                                   batch -> runBatch(batch, options.getMode()),
+                                                                   PositionCounts::merge));
+
+        for (int index = 0; index < leagues.size(); index++) {
+            final League league = leagues.get(index);
+            final PositionCounts leagueCounts = counts.computeIfAbsent(index,
+                    key -> new PositionCounts(StandingsTable.of(league.getMatches()).getTeams()));
+            results.put(league, new LeagueMetrics(league.getName(), leagueCounts));
         }
 
-        if (simulations < 0) {
-            batchOfMetrics.add(generateMetricsForLeague(limitedMatches, league, batchSize + simulations));
+        recordThroughput((long) simulations * leagues.size(), start);
+        return results;
+    }
+
+    /**
+     * Calculates the probabilities of a league and splits its simulations into batches of the size in the options.
+     * The seeds of the batches are drawn up front, in order, so the counts don't depend on how batches are scheduled.
+     */
+    private List<LeagueBatch> getBatches(MatchHistoryIndex history, int historyLimit, int leagueIndex, League league,
+                                         int simulations, MetricsOptions options) {
+        final int batchSize = options.getBatchSize();
+        final Season season = getSeason(league, options.getCutoff());
+
+        final long probabilitiesStart = PROBABILITIES_TIMER.start();
+        final List<MatchProbability> probabilities = getLeagueProbabilities(history, historyLimit, league,
+                season.getFixtures());
+        PROBABILITIES_TIMER.stop(probabilitiesStart);
+
+        final ScoreSampler[] samplers = Simulation.getSamplers(probabilities);
+        final SplittableRandom batchSeeds = new SplittableRandom(options.getSeed(league.getName()));
+        List<LeagueBatch> batches = new ArrayList<>();
+
+        for (int first = 0; first < simulations; first += batchSize) {
+            batches.add(new LeagueBatch(leagueIndex, league.getName(), season, probabilities, samplers,
+                    Math.min(batchSize, simulations - first), batchSeeds.nextLong()));
+        }
+
+        return batches;
+    }
+
+    private PositionCounts runBatch(LeagueBatch batch, MetricsOptions.Mode mode) {
+        if (mode == MetricsOptions.Mode.MATERIALIZED) {
+            return generateBatch(batch.getSeason(), batch.getProbabilities(), batch.getLeagueName(),
+                    batch.getSimulations(), batch.getSeed());
         }
 
-        return new LeagueMetrics(batchOfMetrics);
+        final long simulationStart = SIMULATION_TIMER.start();
+        final PositionCounts counts = simulator.simulateSeasonsSequentially(batch.getSeason().getTable(),
+                batch.getSeason().getFixtures(), batch.getSamplers(), batch.getSimulations(), batch.getSeed());
+        SIMULATION_TIMER.stop(simulationStart);
+        return counts;
     }
 
     /**
-     * Calculates metrics for a league without breaking it up into small batches.
-     * May cause GC overhead with large numbers. Proceed with caution.
+     * Generates metrics for a league in rounds, until the target standard error of the options is reached.
      *
-     * @param allMatches List of all past matches.
+     * @param history Index of all past matches.
      * @param historyLimit Limit of matches to be used from the raw list. Use -1 to use all.
      * @param league League to be simulated.
-     * @param simulations Number of simulations to be made by match.
-     * @return The metrics from the simulations.
+     * @param simulations Number of simulations in each round.
+     * @param options Settings for the simulations.
+     * @return The league metrics.
      */
-    @Deprecated
-    private LeagueMetrics generateMetricsForLeague(List<Match> allMatches, int historyLimit, League league, int simulations) {
-        Date firstMatchDate = league.getMatches().get(0).getDate();
-        List<Match> limitedMatches = getLimitedMatchesBeforeDate(allMatches, firstMatchDate, historyLimit);
-        return generateMetricsForLeague(limitedMatches, league, simulations);
+    private LeagueMetrics generateMetricsForLeague(MatchHistoryIndex history, int historyLimit, League league,
+                                                   int simulations, MetricsOptions options) {
+        final Season season = getSeason(league, options.getCutoff());
+
+        final long probabilitiesStart = PROBABILITIES_TIMER.start();
+        final List<MatchProbability> probabilities = getLeagueProbabilities(history, historyLimit, league,
+                season.getFixtures());
+        PROBABILITIES_TIMER.stop(probabilitiesStart);
+
+        final long start = System.nanoTime();
+        final long simulationStart = SIMULATION_TIMER.start();
+        LeagueMetrics metrics = generateConvergedMetrics(season, probabilities, league.getName(), simulations,
+                options, options.getSeed(league.getName()));
+        SIMULATION_TIMER.stop(simulationStart);
+
+        recordThroughput(metrics.getNumberOfSimulations(), start);
+        return metrics;
     }
 
     /**
-     * Receives the prepared matches list and final simulations number to generate metrics.
-     *
-     * @param limitedMatches List of all the matches that will be used on the calculations.
-     * @param league The league to be simulated.
-     * @param simulations Number of simulations to be made by match.
-     * @return The metrics from the simulations.
+     * Splits a league into the matches played before the cutoff, added to the table's baseline with their real results,
+     * and the fixtures left to be simulated. Without a cutoff, every fixture is simulated.
      */
-    private LeagueMetrics generateMetricsForLeague(List<Match> limitedMatches, League league, int simulations) {
-        Map<Match, SimulatedMatch[]> simulatedMatches = new HashMap<>();
-
-        for (Match match : league.getMatches()) {
-            simulatedMatches.put(match, simulator.simulate(league.getName(), match,
-                    limitedMatches, simulations));
-            limitedMatches.add(match);
-            limitedMatches.remove(0);
+    private Season getSeason(League league, Date cutoff) {
+        final List<Match> matches = league.getMatches();
+        final StandingsTable table = StandingsTable.of(matches);
+        final List<Match> remainingMatches = new ArrayList<>();
+        final int[] fixtures = new int[matches.size()];
+        int remaining = 0;
+
+        for (int fixture = 0; fixture < matches.size(); fixture++) {
+            final Match match = matches.get(fixture);
+
+            if (cutoff != null && match.getDate().before(cutoff)) {
+                table.addResult(fixture, match.getHomeGoals(), match.getAwayGoals());
+            } else {
+                fixtures[remaining++] = fixture;
+                remainingMatches.add(match);
+            }
         }
 
-        List<List<SimulatedMatch>> matchesFromLeague = new ArrayList<>();
-        for (int simulationIndex = 0; simulationIndex < simulations; simulationIndex++) {
-            matchesFromLeague.add(getSimulatedMatchesFromLeague(league, simulatedMatches, simulationIndex));
+        table.setBaseline();
+        return new Season(table, Arrays.copyOf(fixtures, remaining), remainingMatches);
+    }
+
+    /**
+     * Streams seasons in rounds until every probability reaches the target standard error,
+     * or the maximum number of simulations is reached.
+     *
+     * @param season Table and fixtures to be simulated.
+     * @param probabilities The probabilities of each fixture to be simulated, in the same order.
+     * @param leagueName Name of the league to be simulated.
+     * @param simulations Number of simulations in each round.
+     * @param options Settings with the target standard error and maximum number of simulations.
+     * @param seed Seed of the rounds' random streams.
+     * @return The metrics from every round, with the number of simulations run and the error reached.
+     */
+    private LeagueMetrics generateConvergedMetrics(Season season, List<MatchProbability> probabilities,
+                                                   String leagueName, int simulations, MetricsOptions options,
+                                                   long seed) {
+        if (simulations <= 0) {
+            throw new IllegalArgumentException("Number of simulations in each round must be positive.");
         }
 
-        simulatedMatches.clear();
+        final SplittableRandom roundSeeds = new SplittableRandom(seed);
+        PositionCounts counts = new PositionCounts(season.getTable().getTeams());
+        LeagueMetrics metrics;
 
-        List<List<Standing>> standings = new ArrayList<>();
-        matchesFromLeague.forEach(x -> standings.add(generateStandings(x)));
-        matchesFromLeague.clear();
+        do {
+            final int round = (int) Math.min(simulations, options.getMaxSimulations() - counts.getNumberOfSimulations());
+            counts.merge(simulator.simulateSeasons(season.getTable(), season.getFixtures(), probabilities, round,
+                    roundSeeds.nextLong()));
+            metrics = new LeagueMetrics(leagueName, counts);
+        } while (metrics.getStandardError() > options.getTargetStandardError()
+                && counts.getNumberOfSimulations() < options.getMaxSimulations());
 
-        return getMetricsFromStandings(league.getName(), standings, simulations);
+        return metrics;
     }
 
-    private List<Match> getLimitedMatchesBeforeDate(List<Match> allOrderedMatches, Date firstMatchDate, int limit) {
-        if (limit == -1) {
-            return allOrderedMatches;
+    private void recordThroughput(long simulations, long start) {
+        final long elapsed = System.nanoTime() - start;
+        if (elapsed > 0) {
+            SIMULATIONS_PER_SECOND.record((long) (simulations * NANOS_PER_SECOND / elapsed));
         }
+    }
 
-        return allOrderedMatches.stream()
-                                .filter(x -> x.getDate().before(firstMatchDate))
-                                .limit(limit)
-                                .collect(Collectors.toList());
+    /**
+     * Calculates the probabilities of every match in a league, using the last N matches before it.
+     */
+    private List<MatchProbability> getLeagueProbabilities(MatchHistoryIndex history, int historyLimit, League league) {
+        return getLeagueProbabilities(history, historyLimit, league,
+                IntStream.range(0, league.getMatches().size()).toArray());
     }
 
-    private List<SimulatedMatch> getSimulatedMatchesFromLeague(League league,
-                                                               Map<Match, SimulatedMatch[]> simulatedMatches,
-                                                               int currentIndex) {
-        List<SimulatedMatch> matches = new ArrayList<>();
+    /**
+     * Calculates the probabilities of some of the matches in a league, using the last N matches before the league.
+     */
+    private List<MatchProbability> getLeagueProbabilities(MatchHistoryIndex history, int historyLimit, League league,
+                                                          int[] fixtures) {
+        final Date firstMatchDate = league.getMatches().get(0).getDate();
+        final List<Match> limitedMatches = getLimitedMatchesBeforeDate(history, firstMatchDate, historyLimit);
+        final MatchHistoryIndex leagueHistory = getLeagueHistory(limitedMatches, league);
+        return getMatchesProbabilities(leagueHistory, limitedMatches.size(), league, fixtures);
+    }
+
+    /**
+     * Calculates the probabilities of some of the matches in a league.
+     * Each match uses the window of past matches that ends right before it.
+     *
+     * @param leagueHistory Index of the matches used on the calculations, followed by the league's own matches.
+     * @param historySize Number of matches in each window.
+     * @param league The league to be simulated.
+     * @param fixtures Indexes of the league's matches to calculate.
+     * @return The probabilities of each match, in the same order as the fixtures.
+     * @throws IllegalArgumentException If a match's window doesn't have enough past matches to calculate its
+     *                                  probabilities from, e.g. in the earliest league of the history.
+     */
+    private List<MatchProbability> getMatchesProbabilities(MatchHistoryIndex leagueHistory, int historySize, League league,
+                                                           int[] fixtures) {
+        List<MatchProbability> probabilities = new ArrayList<>();
 
-        Match currentMatch;
-        for (int matchIndex = 0; matchIndex < league.getMatches().size(); matchIndex++) {
-            currentMatch = league.getMatches().get(matchIndex);
+        for (int matchIndex : fixtures) {
+            final Match match = league.getMatches().get(matchIndex);
+            final MatchProbability probability = simulator.getMatchProbability(match, leagueHistory, matchIndex,
+                    historySize + matchIndex);
 
-            matches.add(simulatedMatches.get(currentMatch)[currentIndex]);
+            if (!(probability.getTotalSumOfProbabilities() > 0.0)) {
+                throw new IllegalArgumentException("Not enough past matches to calculate the probabilities of "
+                        + match.getHome() + " x " + match.getAway() + " in " + league.getName() + ".");
+            }
+
+            probabilities.add(probability);
         }
 
-        return matches;
+        return probabilities;
     }
 
-    @VisibleForTesting
-    List<Standing> generateStandings(List<SimulatedMatch> matchesFromLeague) {
-        Map<Team, Standing> teamStanding = new HashMap<>();
+    /**
+     * Simulates a single batch of a league, keeping all its scores in memory, and counts the final positions.
+     *
+     * @param season Table and fixtures to be simulated.
+     * @param probabilities The probabilities of each fixture to be simulated, in the same order.
+     * @param leagueName Name of the league to be simulated.
+     * @param simulations Number of simulations to be made by match.
+     * @param seed Seed of the batch's random streams.
+     * @return How many times each team finished in each position.
+     */
+    private PositionCounts generateBatch(Season season, List<MatchProbability> probabilities, String leagueName,
+                                         int simulations, long seed) {
+        final long simulationStart = SIMULATION_TIMER.start();
+        SimulationResult simulatedMatches = simulator.simulateFromProbabilitiesSequentially(leagueName,
+                season.getRemainingMatches(), probabilities, simulations, seed);
+        SIMULATION_TIMER.stop(simulationStart);
+
+        final long aggregationStart = AGGREGATION_TIMER.start();
+        final int[] fixtures = season.getFixtures();
+        StandingsTable table = season.getTable().copy();
+        PositionCounts counts = new PositionCounts(table.getTeams());
+
+        for (int simulationIndex = 0; simulationIndex < simulations; simulationIndex++) {
+            table.reset();
 
-        for (SimulatedMatch match : matchesFromLeague) {
-            teamStanding.computeIfPresent(new Team(match.getHomeTeam()),
-                (k, v) -> v.incrementWithMatch(match));
-            teamStanding.computeIfAbsent(new Team(match.getHomeTeam()),
-                k -> new Standing(new Team(match.getHomeTeam()), match));
+            for (int matchIndex = 0; matchIndex < simulatedMatches.getNumberOfFixtures(); matchIndex++) {
+                table.addResult(fixtures[matchIndex], simulatedMatches.getHomeGoals(matchIndex, simulationIndex),
+                        simulatedMatches.getAwayGoals(matchIndex, simulationIndex));
+            }
 
-            teamStanding.computeIfPresent(new Team(match.getAwayTeam()),
-                (k, v) -> v.incrementWithMatch(match));
-            teamStanding.computeIfAbsent(new Team(match.getAwayTeam()),
-                k -> new Standing(new Team(match.getAwayTeam()), match));
+            counts.increment(table.rank());
         }
 
-        return teamStanding.values().stream()
-                .sorted()
-                .collect(Collectors.toList());
+        AGGREGATION_TIMER.stop(aggregationStart);
+        return counts;
     }
 
-    private LeagueMetrics getMetricsFromStandings(String leagueName, List<List<Standing>> leaguesStandings, int simulations) {
-        LeagueMetrics metrics = new LeagueMetrics(leagueName);
-        metrics.setNumberOfSimulations(simulations);
-        metrics.setChampion(getProbabilitiesByPosition(leaguesStandings, 0));
-        metrics.setHighRanking(getProbabilitiesByPositionRange(leaguesStandings, 0, 4));
+    /**
+     * Selects the last N matches before a date. Use -1 to select all of them.
+     */
+    private List<Match> getLimitedMatchesBeforeDate(MatchHistoryIndex history, Date firstMatchDate, int limit) {
+        if (limit == -1) {
+            return history.getMatches(0, history.size());
+        }
 
-        int lastPosition = leaguesStandings.get(0).size() - 1;
-        metrics.setLowRanking(getProbabilitiesByPositionRange(leaguesStandings, lastPosition - 5, lastPosition));
+        final int to = history.indexOf(firstMatchDate);
+        return history.getMatches(Math.max(0, to - limit), to);
+    }
 
-        return metrics;
+    /**
+     * Indexes the history used by a league followed by the league's own matches,
+     * so the window for each match is the one that ends right before it.
+     */
+    private MatchHistoryIndex getLeagueHistory(List<Match> limitedMatches, League league) {
+        List<Match> matches = new ArrayList<>(limitedMatches.size() + league.getMatches().size());
+        matches.addAll(limitedMatches);
+        matches.addAll(league.getMatches());
+        return MatchHistoryIndex.of(matches);
     }
 
-    private Map<Team, Double> getProbabilitiesByPosition(List<List<Standing>> standings, int position) {
-        Multiset<Team> teamMultiset = HashMultiset.create();
-        standings.forEach(x -> teamMultiset.add(x.get(position).getTeam()));
+    @VisibleForTesting
+    List<Standing> generateStandings(List<SimulatedMatch> matchesFromLeague) {
+        List<String> homeTeams = new ArrayList<>();
+        List<String> awayTeams = new ArrayList<>();
+        matchesFromLeague.forEach(match -> {
+            homeTeams.add(match.getHomeTeam());
+            awayTeams.add(match.getAwayTeam());
+        });
+
+        StandingsTable table = new StandingsTable(homeTeams, awayTeams);
+        for (int matchIndex = 0; matchIndex < matchesFromLeague.size(); matchIndex++) {
+            table.addResult(matchIndex, matchesFromLeague.get(matchIndex).getHomeGoals(),
+                    matchesFromLeague.get(matchIndex).getAwayGoals());
+        }
 
-        double simulations = standings.size();
+        return Arrays.stream(table.rank())
+                     .mapToObj(table::getStanding)
+                     .collect(Collectors.toList());
+    }
 
-        Map<Team, Double> response = new HashMap<>();
-        teamMultiset.forEach(team -> response.put(team, teamMultiset.count(team) / simulations));
+    /**
+     * A league's table, with the results already played as its baseline, and the fixtures left to be simulated.
+     */
+    @Value
+    private static class Season {
+        private final StandingsTable table;
+        private final int[] fixtures;
+        private final List<Match> remainingMatches;
+    }
 
-        return response;
+    /**
+     * Seasons of a league to be simulated by a single task, with their own seed.
+     */
+    @Value
+    private static class LeagueBatch {
+        private final int leagueIndex;
+        private final String leagueName;
+        private final Season season;
+        private final List<MatchProbability> probabilities;
+        private final ScoreSampler[] samplers;
+        private final int simulations;
+        private final long seed;
     }
 
-    private Map<Team, Double> getProbabilitiesByPositionRange(List<List<Standing>> standings,
-                                                              int positionStart, int positionEnd) {
-        Map<Team, Double> sumOfAllProbabilities = new HashMap<>();
+    /**
+     * State of a league simulated asynchronously. Each round is split into batches, submitted to the executor
+     * at once, and the last batch to finish either completes the result or starts another round,
+     * while a target standard error hasn't been reached.
+     */
+    private class AsyncRun {
+        private final String leagueName;
+        private final Season season;
+        private final List<MatchProbability> probabilities;
+        private final ScoreSampler[] samplers;
+        private final int simulations;
+        private final MetricsOptions options;
+        private final Executor executor;
+        private final ProgressListener listener;
+        private final CompletableFuture<LeagueMetrics> result;
+
+        private final SplittableRandom batchSeeds;
+        private final long start = System.nanoTime();
+        private PositionCounts counts;
+        private volatile long plannedSimulations;
+
+        private AsyncRun(String leagueName, Season season, List<MatchProbability> probabilities, int simulations,
+                         MetricsOptions options, Executor executor, ProgressListener listener,
+                         CompletableFuture<LeagueMetrics> result) {
+            this.leagueName = leagueName;
+            this.season = season;
+            this.probabilities = probabilities;
+            this.samplers = Simulation.getSamplers(probabilities);
+            this.simulations = simulations;
+            this.options = options;
+            this.executor = executor;
+            this.listener = listener;
+            this.result = result;
+            this.batchSeeds = new SplittableRandom(options.getSeed(leagueName));
+            this.counts = new PositionCounts(season.getTable().getTeams());
+        }
+
+        private synchronized void startRound() {
+            final int round = options.getTargetStandardError() == null ? simulations
+                    : (int) Math.min(simulations, options.getMaxSimulations() - plannedSimulations);
+            final int batchSize = options.getBatchSize();
+            final int batches = (round + batchSize - 1) / batchSize;
+            final AtomicInteger remainingBatches = new AtomicInteger(batches);
+
+            // No batch would ever finish the round, so the future is completed here instead
+            if (batches <= 0) {
+                result.complete(new LeagueMetrics(leagueName, counts));
+                return;
+            }
+
+            plannedSimulations += round;
+
+            for (int batch = 0; batch < batches; batch++) {
+                final int size = Math.min(batchSize, round - batch * batchSize);
+                final long seed = batchSeeds.nextLong();
+
+                try {
+                    executor.execute(() -> runBatch(size, seed, remainingBatches));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+            }
+        }
+
+        private void runBatch(int size, long seed, AtomicInteger remainingBatches) {
+            if (result.isDone()) {
+                return;
+            }
+
+            try {
+                final PositionCounts batchCounts;
+
+                if (options.getMode() == MetricsOptions.Mode.MATERIALIZED) {
+                    batchCounts = generateBatch(season, probabilities, leagueName, size, seed);
+                } else {
+                    final long simulationStart = SIMULATION_TIMER.start();
+                    batchCounts = simulator.simulateSeasonsSequentially(season.getTable(), season.getFixtures(),
+                            samplers, size, seed);
+                    SIMULATION_TIMER.stop(simulationStart);
+                }
+
+                final long completed = addCounts(batchCounts);
+                listener.onProgress(leagueName, completed, plannedSimulations);
+
+                if (remainingBatches.decrementAndGet() == 0) {
+                    finishRound();
+                }
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
 
-        Map<Team, Double> currentMapOfProbabilities;
-        for (int i = positionStart; i <= positionEnd; i++) {
-            currentMapOfProbabilities = getProbabilitiesByPosition(standings, i);
-            currentMapOfProbabilities.forEach((k, v) -> sumOfAllProbabilities.merge(k, v, Double::sum));
+        private synchronized long addCounts(PositionCounts batchCounts) {
+            counts.merge(batchCounts);
+            return counts.getNumberOfSimulations();
         }
 
-        return sumOfAllProbabilities;
+        private synchronized void finishRound() {
+            final LeagueMetrics metrics = new LeagueMetrics(leagueName, counts);
+
+            if (options.getTargetStandardError() != null
+                    && metrics.getStandardError() > options.getTargetStandardError()
+                    && plannedSimulations < options.getMaxSimulations()) {
+                startRound();
+                return;
+            }
+
+            recordThroughput(metrics.getNumberOfSimulations(), start);
+            result.complete(metrics);
+        }
     }
 }
@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Elo ratings of every team after every match, so the ratings as of any date
+ * can be looked up without replaying the matches again.
+ *
+ * Each team has the positions of its matches in the log, which the rating of a single team is
+ * binary searched on. Full snapshots of every team's rating are taken every {@link #SNAPSHOT_INTERVAL}
+ * matches, so the ratings of every team only need the matches since the closest snapshot.
+ * Teams are indexed by their {@link TeamRegistry} id.
+ */
+public class EloRatingHistory {
+
+    private static final int SNAPSHOT_INTERVAL = 512;
+    private static final int FILE_MAGIC = 0x454C4F48;
+    private static final int FILE_VERSION = 1;
+
+    private final double initialRating;
+
+    // One entry per match, in chronological order, with the ratings right after it.
+    private final int[] days;
+    private final int[] homeTeams;
+    private final double[] homeRatings;
+    private final int[] awayTeams;
+    private final double[] awayRatings;
+
+    private final int[][] teamPositions;
+    private final double[][] snapshots;
+
+    /**
+     * @param initialRating Rating of teams that didn't play yet.
+     * @param days Epoch day of each match.
+     * @param homeTeams Id of the home team of each match.
+     * @param homeRatings Rating of the home team right after each match.
+     * @param awayTeams Id of the away team of each match.
+     * @param awayRatings Rating of the away team right after each match.
+     */
+    public EloRatingHistory(double initialRating, int[] days, int[] homeTeams, double[] homeRatings,
+                            int[] awayTeams, double[] awayRatings) {
+        this.initialRating = initialRating;
+        this.days = days;
+        this.homeTeams = homeTeams;
+        this.homeRatings = homeRatings;
+        this.awayTeams = awayTeams;
+        this.awayRatings = awayRatings;
+        this.teamPositions = getTeamPositions();
+        this.snapshots = IntStream.rangeClosed(0, days.length / SNAPSHOT_INTERVAL)
+                                  .parallel()
+                                  .mapToObj(snapshot -> getRatingsAt(snapshot * SNAPSHOT_INTERVAL))
+                                  .toArray(double[][]::new);
+    }
+
+    public static int getEpochDay(Date date) {
+        return Match.getEpochDay(date);
+    }
+
+    public int getNumberOfMatches() {
+        return days.length;
+    }
+
+    public double getInitialRating() {
+        return initialRating;
+    }
+
+    /**
+     * @return The rating of a team after all of its matches before the given date.
+     */
+    public double getRating(int team, Date date) {
+        if (team >= teamPositions.length) {
+            return initialRating;
+        }
+
+        final int[] positions = teamPositions[team];
+        final int day = getEpochDay(date);
+        int low = 0;
+        int high = positions.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (days[positions[middle]] < day) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low == 0 ? initialRating : getRatingAfter(positions[low - 1], team);
+    }
+
+    /**
+     * @return The rating of every team after all matches before the given date, indexed by team id.
+     * Teams that didn't play yet have the initial rating.
+     */
+    public double[] getRatings(Date date) {
+        final double[] ratings = getRatingsById(date);
+
+        for (int team = 0; team < ratings.length; team++) {
+            if (Double.isNaN(ratings[team])) {
+                ratings[team] = initialRating;
+            }
+        }
+
+        return ratings;
+    }
+
+    /**
+     * @return The rating of every team that played before the given date, by team name, for reporting.
+     */
+    public Map<String, Double> getRatingsByName(Date date) {
+        final double[] ratings = getRatingsById(date);
+        final TeamRegistry registry = TeamRegistry.getInstance();
+        Map<String, Double> response = new HashMap<>();
+
+        for (int team = 0; team < ratings.length; team++) {
+            if (!Double.isNaN(ratings[team])) {
+                response.put(registry.getName(team), ratings[team]);
+            }
+        }
+
+        return response;
+    }
+
+    /**
+     * Saves the history to a file. Teams are saved by name, since ids are only valid in this process.
+     */
+    public void save(Path path) throws IOException {
+        Map<Integer, Integer> fileIndexes = new HashMap<>();
+        IntStream.concat(Arrays.stream(homeTeams), Arrays.stream(awayTeams))
+                 .forEach(team -> fileIndexes.putIfAbsent(team, fileIndexes.size()));
+
+        String[] names = new String[fileIndexes.size()];
+        fileIndexes.forEach((team, index) -> names[index] = TeamRegistry.getInstance().getName(team));
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            output.writeInt(FILE_MAGIC);
+            output.writeInt(FILE_VERSION);
+            output.writeDouble(initialRating);
+
+            output.writeInt(names.length);
+            for (String name : names) {
+                output.writeUTF(name);
+            }
+
+            output.writeInt(days.length);
+            for (int position = 0; position < days.length; position++) {
+                output.writeInt(days[position]);
+                output.writeInt(fileIndexes.get(homeTeams[position]));
+                output.writeDouble(homeRatings[position]);
+                output.writeInt(fileIndexes.get(awayTeams[position]));
+                output.writeDouble(awayRatings[position]);
+            }
+        }
+    }
+
+    public static EloRatingHistory load(Path path) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (input.readInt() != FILE_MAGIC || input.readInt() != FILE_VERSION) {
+                throw new IOException("Not an Elo rating history file: " + path);
+            }
+
+            final double initialRating = input.readDouble();
+
+            int[] teams = new int[input.readInt()];
+            for (int index = 0; index < teams.length; index++) {
+                teams[index] = TeamRegistry.getInstance().getId(input.readUTF());
+            }
+
+            final int numberOfMatches = input.readInt();
+            int[] days = new int[numberOfMatches];
+            int[] homeTeams = new int[numberOfMatches];
+            double[] homeRatings = new double[numberOfMatches];
+            int[] awayTeams = new int[numberOfMatches];
+            double[] awayRatings = new double[numberOfMatches];
+
+            for (int position = 0; position < numberOfMatches; position++) {
+                days[position] = input.readInt();
+                homeTeams[position] = teams[input.readInt()];
+                homeRatings[position] = input.readDouble();
+                awayTeams[position] = teams[input.readInt()];
+                awayRatings[position] = input.readDouble();
+            }
+
+            return new EloRatingHistory(initialRating, days, homeTeams, homeRatings, awayTeams, awayRatings);
+        }
+    }
+
+    /**
+     * Ratings by team id as of a date, starting from the closest snapshot. Teams that didn't play are NaN.
+     */
+    private double[] getRatingsById(Date date) {
+        final int position = indexOf(getEpochDay(date));
+        final int snapshot = position / SNAPSHOT_INTERVAL;
+        final double[] ratings = Arrays.copyOf(snapshots[snapshot], teamPositions.length);
+
+        for (int match = snapshot * SNAPSHOT_INTERVAL; match < position; match++) {
+            ratings[homeTeams[match]] = homeRatings[match];
+            ratings[awayTeams[match]] = awayRatings[match];
+        }
+
+        return ratings;
+    }
+
+    /**
+     * @return Ratings by team id after the matches in positions [0, position). Teams that didn't play are NaN.
+     */
+    private double[] getRatingsAt(int position) {
+        final double[] ratings = new double[teamPositions.length];
+        int[] positions;
+        int index;
+
+        for (int team = 0; team < ratings.length; team++) {
+            positions = teamPositions[team];
+            index = Arrays.binarySearch(positions, position);
+            index = index >= 0 ? index : -(index + 1);
+            ratings[team] = index == 0 ? Double.NaN : getRatingAfter(positions[index - 1], team);
+        }
+
+        return ratings;
+    }
+
+    private double getRatingAfter(int position, int team) {
+        return homeTeams[position] == team ? homeRatings[position] : awayRatings[position];
+    }
+
+    /**
+     * @return The position of the first match played on or after the given day.
+     */
+    private int indexOf(int day) {
+        int low = 0;
+        int high = days.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (days[middle] < day) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private int[][] getTeamPositions() {
+        int numberOfTeams = 0;
+        for (int position = 0; position < days.length; position++) {
+            numberOfTeams = Math.max(numberOfTeams, Math.max(homeTeams[position], awayTeams[position]) + 1);
+        }
+
+        int[] sizes = new int[numberOfTeams];
+        for (int position = 0; position < days.length; position++) {
+            sizes[homeTeams[position]]++;
+            sizes[awayTeams[position]]++;
+        }
+
+        int[][] positions = new int[numberOfTeams][];
+        for (int team = 0; team < numberOfTeams; team++) {
+            positions[team] = new int[sizes[team]];
+            sizes[team] = 0;
+        }
+
+        for (int position = 0; position < days.length; position++) {
+            positions[homeTeams[position]][sizes[homeTeams[position]]++] = position;
+            positions[awayTeams[position]][sizes[awayTeams[position]]++] = position;
+        }
+
+        return positions;
+    }
+}
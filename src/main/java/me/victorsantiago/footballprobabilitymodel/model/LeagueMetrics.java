@@ -21,6 +21,8 @@
 
 package me.victorsantiago.footballprobabilitymodel.model;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -48,6 +50,12 @@ public class LeagueMetrics {
 
     private int numberOfSimulations;
 
+    // Largest standard error among the champion, high and low ranking probabilities.
+    private double standardError;
+
+    // Teams probabilities to finish in each position or above, so any zone takes a single subtraction.
+    private Map<Team, List<Double>> cumulativeProbabilities;
+
     public LeagueMetrics(List<LeagueMetrics> leagueMetricsList) {
         if (leagueMetricsList.isEmpty()) {
             String message = "List of league metrics must NOT be empty.";
@@ -58,6 +66,146 @@ public class LeagueMetrics {
         this.champion = getMergedMap(leagueMetricsList, MapType.CHAMPION);
         this.highRanking = getMergedMap(leagueMetricsList, MapType.HIGH_RANKING);
         this.lowRanking = getMergedMap(leagueMetricsList, MapType.LOW_RANKING);
+        this.numberOfSimulations = leagueMetricsList.stream().mapToInt(LeagueMetrics::getNumberOfSimulations).sum();
+        this.cumulativeProbabilities = getMergedCumulativeProbabilities(leagueMetricsList);
+        this.standardError = getStandardError(numberOfSimulations, champion, highRanking, lowRanking);
+    }
+
+    /**
+     * Metrics from how many times each team finished in each position.
+     * Counts from different batches or workers should be merged before, since that's exact.
+     */
+    public LeagueMetrics(String leagueName, PositionCounts counts) {
+        final long[][] cumulativeCounts = counts.getCumulativeCounts();
+
+        this.leagueName = leagueName;
+        this.numberOfSimulations = (int) counts.getNumberOfSimulations();
+        this.champion = getProbabilitiesByPositionRange(counts, cumulativeCounts, 0, 0);
+        this.highRanking = getProbabilitiesByPositionRange(counts, cumulativeCounts, 0, 4);
+
+        int lastPosition = counts.getNumberOfTeams() - 1;
+        this.lowRanking = getProbabilitiesByPositionRange(counts, cumulativeCounts, lastPosition - 5, lastPosition);
+        this.cumulativeProbabilities = getCumulativeProbabilities(counts, cumulativeCounts);
+        this.standardError = getStandardError(numberOfSimulations, champion, highRanking, lowRanking);
+    }
+
+    /**
+     * Each probability is the mean of a yes or no outcome, so its standard error is sqrt(p * (1 - p) / n).
+     *
+     * @return The largest standard error among the probabilities of the maps, or infinity without simulations.
+     */
+    @SafeVarargs
+    private static double getStandardError(int simulations, Map<Team, Double>... probabilities) {
+        if (simulations <= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double standardError = 0.0;
+        for (Map<Team, Double> map : probabilities) {
+            for (double probability : map.values()) {
+                standardError = Math.max(standardError, Math.sqrt(probability * (1 - probability) / simulations));
+            }
+        }
+
+        return standardError;
+    }
+
+    /**
+     * Probabilities of finishing in a zone of the table, such as the relegation zone.
+     * Only available on metrics built from position counts.
+     *
+     * @param positionStart First position of the zone, starting at 0, inclusive.
+     * @param positionEnd Last position of the zone, inclusive.
+     * @return The probability of each team that finished in the zone at least once.
+     */
+    public Map<Team, Double> getZoneProbabilities(int positionStart, int positionEnd) {
+        if (cumulativeProbabilities == null) {
+            throw new IllegalStateException("Position distribution is only available on metrics from position counts.");
+        }
+
+        Map<Team, Double> response = new HashMap<>();
+
+        for (Map.Entry<Team, List<Double>> entry : cumulativeProbabilities.entrySet()) {
+            final List<Double> cumulative = entry.getValue();
+            final double probability = cumulative.get(Math.min(positionEnd, cumulative.size() - 1))
+                    - (positionStart > 0 ? cumulative.get(positionStart - 1) : 0.0);
+
+            if (probability > 0) {
+                response.put(entry.getKey(), probability);
+            }
+        }
+
+        return response;
+    }
+
+    private Map<Team, Double> getProbabilitiesByPositionRange(PositionCounts counts, long[][] cumulativeCounts,
+                                                              int positionStart, int positionEnd) {
+        double simulations = counts.getNumberOfSimulations();
+        Map<Team, Double> response = new HashMap<>();
+
+        long teamCount;
+        for (int team = 0; team < counts.getNumberOfTeams(); team++) {
+            teamCount = cumulativeCounts[team][Math.min(positionEnd + 1, counts.getNumberOfTeams())]
+                    - cumulativeCounts[team][Math.max(0, positionStart)];
+
+            if (teamCount > 0) {
+                response.put(counts.getTeams().get(team), teamCount / simulations);
+            }
+        }
+
+        return response;
+    }
+
+    private Map<Team, List<Double>> getCumulativeProbabilities(PositionCounts counts, long[][] cumulativeCounts) {
+        double simulations = counts.getNumberOfSimulations();
+        Map<Team, List<Double>> response = new HashMap<>();
+
+        for (int team = 0; team < counts.getNumberOfTeams(); team++) {
+            List<Double> probabilities = new ArrayList<>(counts.getNumberOfTeams());
+
+            for (int position = 0; position < counts.getNumberOfTeams(); position++) {
+                probabilities.add(simulations > 0 ? cumulativeCounts[team][position + 1] / simulations : 0.0);
+            }
+
+            response.put(counts.getTeams().get(team), Collections.unmodifiableList(probabilities));
+        }
+
+        return response;
+    }
+
+    /**
+     * Averages the cumulative probabilities of every metric, weighted by their number of simulations.
+     *
+     * @return The merged probabilities, or null if any of the metrics doesn't have them.
+     */
+    private Map<Team, List<Double>> getMergedCumulativeProbabilities(List<LeagueMetrics> metrics) {
+        if (numberOfSimulations <= 0
+                || metrics.stream().anyMatch(metric -> metric.getCumulativeProbabilities() == null)) {
+            return null;
+        }
+
+        Map<Team, double[]> sums = new HashMap<>();
+        for (LeagueMetrics metric : metrics) {
+            for (Map.Entry<Team, List<Double>> entry : metric.getCumulativeProbabilities().entrySet()) {
+                double[] sum = sums.computeIfAbsent(entry.getKey(), team -> new double[entry.getValue().size()]);
+
+                for (int position = 0; position < sum.length; position++) {
+                    sum[position] += entry.getValue().get(position) * metric.getNumberOfSimulations();
+                }
+            }
+        }
+
+        Map<Team, List<Double>> response = new HashMap<>();
+        sums.forEach((team, sum) -> {
+            List<Double> probabilities = new ArrayList<>(sum.length);
+            for (double value : sum) {
+                probabilities.add(value / numberOfSimulations);
+            }
+
+            response.put(team, Collections.unmodifiableList(probabilities));
+        });
+
+        return response;
     }
 
     private Map<Team, Double> getMergedMap(List<LeagueMetrics> metrics, MapType type) {
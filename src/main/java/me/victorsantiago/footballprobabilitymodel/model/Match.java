@@ -23,14 +23,20 @@ package me.victorsantiago.footballprobabilitymodel.model;
 
 import java.util.Date;
 
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 @Data
-@Builder
+@ToString(exclude = {"homeId", "awayId"})
 public class Match implements Comparable<Match> {
 
-    private static final double DEFAULT_K = 20;
+    public static final long MILLISECONDS_PER_DAY = 86_400_000L;
+
+    public static final double DEFAULT_K = 20;
 
     public enum Result {
         VICTORY, TIE, LOSS
@@ -43,6 +49,71 @@ public class Match implements Comparable<Match> {
     private Date date;
     private double k;
 
+    // Ids from the TeamRegistry, plus one, so 0 means they weren't looked up yet.
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient int homeId;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient int awayId;
+
+    @Builder
+    public Match(String home, String away, int homeGoals, int awayGoals, Date date, double k) {
+        this.home = home;
+        this.away = away;
+        this.homeGoals = homeGoals;
+        this.awayGoals = awayGoals;
+        this.date = date;
+        this.k = k;
+    }
+
+    public void setHome(String home) {
+        this.home = home;
+        this.homeId = 0;
+    }
+
+    public void setAway(String away) {
+        this.away = away;
+        this.awayId = 0;
+    }
+
+    /**
+     * @return The home team's id in the {@link TeamRegistry}.
+     */
+    public int getHomeId() {
+        if (homeId == 0) {
+            homeId = TeamRegistry.getInstance().getId(home) + 1;
+        }
+
+        return homeId - 1;
+    }
+
+    /**
+     * @return The away team's id in the {@link TeamRegistry}.
+     */
+    public int getAwayId() {
+        if (awayId == 0) {
+            awayId = TeamRegistry.getInstance().getId(away) + 1;
+        }
+
+        return awayId - 1;
+    }
+
+    /**
+     * @return The day of the match, counted from the epoch in UTC.
+     */
+    public int getEpochDay() {
+        return getEpochDay(date);
+    }
+
+    /**
+     * @return The day of a date, counted from the epoch in UTC. Missing dates come before any other day.
+     */
+    public static int getEpochDay(Date date) {
+        return date == null ? Integer.MIN_VALUE : (int) Math.floorDiv(date.getTime(), MILLISECONDS_PER_DAY);
+    }
+
     public Result getResult() {
         if (homeGoals == awayGoals) {
             return  Result.TIE;
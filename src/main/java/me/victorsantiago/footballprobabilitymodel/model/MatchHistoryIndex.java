@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Time-ordered index of cumulative goal and match counts.
+ *
+ * Goal aggregates for any window of positions [from, to) come from two binary searches
+ * and a subtraction per team, instead of going over the matches in the window.
+ * We're assuming all matches that get here are already sorted.
+ */
+public class MatchHistoryIndex {
+
+    private static final long FINGERPRINT_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final List<Match> matches;
+    private final long[] dates;
+    private final long[] cumulativeHomeGoals;
+    private final long[] cumulativeAwayGoals;
+    private final long[] prefixFingerprints;
+    private final long[] fingerprintPowers;
+    private TeamIndex[] teams;
+
+    private MatchHistoryIndex(List<Match> matches) {
+        this.matches = Collections.unmodifiableList(new ArrayList<>(matches));
+        this.dates = new long[matches.size()];
+        this.cumulativeHomeGoals = new long[matches.size() + 1];
+        this.cumulativeAwayGoals = new long[matches.size() + 1];
+        this.prefixFingerprints = new long[matches.size() + 1];
+        this.fingerprintPowers = new long[matches.size() + 1];
+        this.teams = new TeamIndex[TeamRegistry.getInstance().size()];
+
+        fingerprintPowers[0] = 1;
+
+        Match match;
+        for (int position = 0; position < matches.size(); position++) {
+            match = matches.get(position);
+
+            dates[position] = match.getDate() == null ? Long.MIN_VALUE : match.getDate().getTime();
+            cumulativeHomeGoals[position + 1] = cumulativeHomeGoals[position] + match.getHomeGoals();
+            cumulativeAwayGoals[position + 1] = cumulativeAwayGoals[position] + match.getAwayGoals();
+            prefixFingerprints[position + 1] = prefixFingerprints[position] * FINGERPRINT_MULTIPLIER + getHash(match);
+            fingerprintPowers[position + 1] = fingerprintPowers[position] * FINGERPRINT_MULTIPLIER;
+
+            getTeamIndex(match.getHomeId()).home.add(position, match.getHomeGoals(), match.getAwayGoals());
+            getTeamIndex(match.getAwayId()).away.add(position, match.getAwayGoals(), match.getHomeGoals());
+        }
+    }
+
+    private TeamIndex getTeamIndex(int team) {
+        if (team >= teams.length) {
+            teams = Arrays.copyOf(teams, Math.max(team + 1, teams.length * 2));
+        }
+
+        if (teams[team] == null) {
+            teams[team] = new TeamIndex();
+        }
+
+        return teams[team];
+    }
+
+    public static MatchHistoryIndex of(List<Match> orderedMatches) {
+        return new MatchHistoryIndex(orderedMatches);
+    }
+
+    public int size() {
+        return matches.size();
+    }
+
+    /**
+     * @return A read-only view of the matches in positions [from, to).
+     */
+    public List<Match> getMatches(int from, int to) {
+        return matches.subList(from, to);
+    }
+
+    /**
+     * Fingerprint of the matches in positions [from, to), calculated from prefix fingerprints in constant time.
+     * Windows with the same matches have the same fingerprint, even across different indexes.
+     *
+     * @return The same value as {@link #getFingerprint(List)} for the matches in the window.
+     */
+    public long getFingerprint(int from, int to) {
+        return prefixFingerprints[to] - prefixFingerprints[from] * fingerprintPowers[to - from];
+    }
+
+    /**
+     * Fingerprint of a list of matches, taking their order into account.
+     */
+    public static long getFingerprint(List<Match> matches) {
+        long fingerprint = 0;
+
+        for (Match match : matches) {
+            fingerprint = fingerprint * FINGERPRINT_MULTIPLIER + getHash(match);
+        }
+
+        return fingerprint;
+    }
+
+    /**
+     * 64-bit hash of the fields of a match the calculators read: the teams, the day, the score and K.
+     * Each field is folded in through SplitMix64's finaliser, so nearby values don't cancel each other out.
+     */
+    private static long getHash(Match match) {
+        long hash = mix(((long) match.getHomeId() << 32) | (match.getAwayId() & 0xFFFFFFFFL));
+        hash = mix(hash ^ (((long) match.getEpochDay() << 32) | (match.getHomeGoals() & 0xFFFFL) << 16
+                | (match.getAwayGoals() & 0xFFFFL)));
+        return mix(hash ^ Double.doubleToLongBits(match.getK()));
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * @return The position of the first match played on or after the given date.
+     */
+    public int indexOf(Date date) {
+        int low = 0;
+        int high = dates.length;
+        final long time = date.getTime();
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (dates[middle] < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Goal aggregates for the matches between two dates.
+     *
+     * @param from Start date, inclusive.
+     * @param to End date, exclusive.
+     * @param teams Ids of the teams to include in the aggregates.
+     * @return The aggregates for the given window.
+     */
+    public TeamGoalStats getStats(Date from, Date to, int... teams) {
+        return getStats(indexOf(from), indexOf(to), teams);
+    }
+
+    /**
+     * Goal aggregates for the last N matches before a date.
+     *
+     * @param date Matches on or after this date are left out.
+     * @param limit Number of matches to use. Use -1 to use all.
+     * @param teams Ids of the teams to include in the aggregates.
+     * @return The aggregates for the given window.
+     */
+    public TeamGoalStats getStatsBefore(Date date, int limit, int... teams) {
+        final int to = indexOf(date);
+        final int from = limit == -1 ? 0 : Math.max(0, to - limit);
+        return getStats(from, to, teams);
+    }
+
+    /**
+     * Goal aggregates for the matches in positions [from, to).
+     * Only the teams asked for are included, so this never goes over the whole window.
+     *
+     * @param from Start position, inclusive.
+     * @param to End position, exclusive.
+     * @param teams Ids of the teams to include in the aggregates.
+     * @return The aggregates for the given window.
+     */
+    public TeamGoalStats getStats(int from, int to, int... teams) {
+        TeamGoalStats stats = new TeamGoalStats();
+        stats.addTotals(to - from, cumulativeHomeGoals[to] - cumulativeHomeGoals[from],
+                cumulativeAwayGoals[to] - cumulativeAwayGoals[from]);
+
+        for (int team : teams) {
+            if (team < this.teams.length && this.teams[team] != null) {
+                addTeamStats(stats, team, this.teams[team], from, to);
+            }
+        }
+
+        return stats;
+    }
+
+    private void addTeamStats(TeamGoalStats stats, int team, TeamIndex teamIndex, int from, int to) {
+        final int homeStart = teamIndex.home.indexOf(from);
+        final int homeEnd = teamIndex.home.indexOf(to);
+        final int awayStart = teamIndex.away.indexOf(from);
+        final int awayEnd = teamIndex.away.indexOf(to);
+
+        stats.add(team,
+                homeEnd - homeStart,
+                teamIndex.home.goalsFor(homeStart, homeEnd),
+                teamIndex.home.goalsAgainst(homeStart, homeEnd),
+                awayEnd - awayStart,
+                teamIndex.away.goalsFor(awayStart, awayEnd),
+                teamIndex.away.goalsAgainst(awayStart, awayEnd));
+    }
+
+    private static class TeamIndex {
+        private final Appearances home = new Appearances();
+        private final Appearances away = new Appearances();
+    }
+
+    /**
+     * Positions where a team played on one side of the pitch, with the cumulative goals up to each of them.
+     */
+    private static class Appearances {
+        private int size;
+        private int[] positions = new int[8];
+        private long[] cumulativeGoalsFor = new long[9];
+        private long[] cumulativeGoalsAgainst = new long[9];
+
+        private void add(int position, int goalsFor, int goalsAgainst) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+                cumulativeGoalsFor = Arrays.copyOf(cumulativeGoalsFor, size * 2 + 1);
+                cumulativeGoalsAgainst = Arrays.copyOf(cumulativeGoalsAgainst, size * 2 + 1);
+            }
+
+            positions[size] = position;
+            cumulativeGoalsFor[size + 1] = cumulativeGoalsFor[size] + goalsFor;
+            cumulativeGoalsAgainst[size + 1] = cumulativeGoalsAgainst[size] + goalsAgainst;
+            size++;
+        }
+
+        /**
+         * @return How many appearances happened before the given position.
+         */
+        private int indexOf(int position) {
+            int index = Arrays.binarySearch(positions, 0, size, position);
+            return index >= 0 ? index : -(index + 1);
+        }
+
+        private long goalsFor(int start, int end) {
+            return cumulativeGoalsFor[end] - cumulativeGoalsFor[start];
+        }
+
+        private long goalsAgainst(int start, int end) {
+            return cumulativeGoalsAgainst[end] - cumulativeGoalsAgainst[start];
+        }
+    }
+}
@@ -39,6 +39,8 @@ public class MatchProbability {
     private double awayWinProbability = -1.0;
     private double tieProbability = -1.0;
 
+    private volatile ScoreSampler sampler;
+
     @Builder
     public MatchProbability(String homeTeam, String awayTeam, double[][] scoreProbability) {
         this.homeTeam = homeTeam;
@@ -106,4 +108,18 @@ public class MatchProbability {
     public double getTotalSumOfProbabilities() {
         return getHomeWinProbability() + getAwayWinProbability() + getTieProbability();
     }
+
+    /**
+     * @return A sampler for the scores of this match, built on the first call and reused afterwards.
+     */
+    public ScoreSampler getSampler() {
+        ScoreSampler currentSampler = sampler;
+
+        if (currentSampler == null) {
+            currentSampler = new ScoreSampler(scoreProbability);
+            sampler = currentSampler;
+        }
+
+        return currentSampler;
+    }
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.model;
+
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * How many times each team finished in each position, over a number of simulated seasons.
+ * Counts from different batches or workers can be merged exactly.
+ */
+public class PositionCounts {
+
+    @Getter
+    private final List<Team> teams;
+
+    private final long[][] counts;
+
+    @Getter
+    private long numberOfSimulations;
+
+    public PositionCounts(List<Team> teams) {
+        this.teams = teams;
+        this.counts = new long[teams.size()][teams.size()];
+    }
+
+    /**
+     * Adds a simulated season.
+     *
+     * @param ranking The team index in each position.
+     */
+    public void increment(int[] ranking) {
+        for (int position = 0; position < ranking.length; position++) {
+            counts[ranking[position]][position]++;
+        }
+
+        numberOfSimulations++;
+    }
+
+    /**
+     * Takes back a season added before, such as one whose final table changed.
+     *
+     * @param ranking The team index in each position.
+     */
+    public void decrement(int[] ranking) {
+        for (int position = 0; position < ranking.length; position++) {
+            counts[ranking[position]][position]--;
+        }
+
+        numberOfSimulations--;
+    }
+
+    /**
+     * Adds the counts of another set of simulations with the same teams to these ones.
+     *
+     * @return These counts, to be used as a reducer.
+     */
+    public PositionCounts merge(PositionCounts other) {
+        if (other.counts.length != counts.length || !other.teams.equals(teams)) {
+            throw new IllegalArgumentException("Position counts must be for the same teams.");
+        }
+
+        for (int team = 0; team < counts.length; team++) {
+            for (int position = 0; position < counts[team].length; position++) {
+                counts[team][position] += other.counts[team][position];
+            }
+        }
+
+        numberOfSimulations += other.numberOfSimulations;
+        return this;
+    }
+
+    public int getNumberOfTeams() {
+        return teams.size();
+    }
+
+    public long getCount(int team, int position) {
+        return counts[team][position];
+    }
+
+    /**
+     * Prefix sums of the counts, so the count of any range of positions takes a single subtraction.
+     *
+     * @return For each team, how many times it finished above each position, with one more entry for the whole table.
+     */
+    public long[][] getCumulativeCounts() {
+        long[][] cumulativeCounts = new long[counts.length][counts.length + 1];
+
+        for (int team = 0; team < counts.length; team++) {
+            for (int position = 0; position < counts[team].length; position++) {
+                cumulativeCounts[team][position + 1] = cumulativeCounts[team][position] + counts[team][position];
+            }
+        }
+
+        return cumulativeCounts;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.model;
+
+/**
+ * Walker/Vose alias table over the scores of a match, so each simulated score costs O(1)
+ * no matter how many goals the probability matrix goes up to.
+ *
+ * It is immutable once built, so a single sampler can be shared by every thread and batch.
+ */
+public class ScoreSampler {
+
+    private final int[] homeGoals;
+    private final int[] awayGoals;
+    private final double[] probabilities;
+    private final int[] aliases;
+
+    /**
+     * @param scoreProbability Probability of each score, indexed by [home goals][away goals]. They don't need to add up
+     *                         to 1, but they must add up to more than zero.
+     * @throws IllegalArgumentException If the probabilities add up to zero or NaN, e.g. when they were calculated
+     *                                  without any past matches.
+     */
+    public ScoreSampler(double[][] scoreProbability) {
+        int numberOfScores = 0;
+        double total = 0.0;
+        for (double[] row : scoreProbability) {
+            numberOfScores += row.length;
+
+            for (double probability : row) {
+                total += probability;
+            }
+        }
+
+        if (!(total > 0.0)) {
+            throw new IllegalArgumentException("Score probabilities must add up to more than zero, but they add up to "
+                    + total + ". Were they calculated without any past matches?");
+        }
+
+        homeGoals = new int[numberOfScores];
+        awayGoals = new int[numberOfScores];
+        probabilities = new double[numberOfScores];
+        aliases = new int[numberOfScores];
+
+        int score = 0;
+        for (int homeGoal = 0; homeGoal < scoreProbability.length; homeGoal++) {
+            for (int awayGoal = 0; awayGoal < scoreProbability[homeGoal].length; awayGoal++) {
+                homeGoals[score] = homeGoal;
+                awayGoals[score] = awayGoal;
+                probabilities[score] = scoreProbability[homeGoal][awayGoal];
+                score++;
+            }
+        }
+
+        buildAliasTable(total);
+    }
+
+    /**
+     * Picks a score.
+     *
+     * @param random A uniformly distributed value in [0, 1).
+     * @return The index of the picked score, to be used with {@link #getHomeGoals(int)} and {@link #getAwayGoals(int)}.
+     */
+    public int sample(double random) {
+        final double scaled = random * probabilities.length;
+        final int score = Math.min((int) scaled, probabilities.length - 1);
+
+        return scaled - score < probabilities[score] ? score : aliases[score];
+    }
+
+    public int getHomeGoals(int score) {
+        return homeGoals[score];
+    }
+
+    public int getAwayGoals(int score) {
+        return awayGoals[score];
+    }
+
+    public int getNumberOfScores() {
+        return probabilities.length;
+    }
+
+    /**
+     * Vose's method: splits the scores in the ones below and above the average probability,
+     * then fills each small one up with a piece of a large one.
+     */
+    private void buildAliasTable(double total) {
+        final int size = probabilities.length;
+        final int[] small = new int[size];
+        final int[] large = new int[size];
+        int smallSize = 0;
+        int largeSize = 0;
+
+        for (int score = 0; score < size; score++) {
+            probabilities[score] = probabilities[score] * size / total;
+            aliases[score] = score;
+
+            if (probabilities[score] < 1.0) {
+                small[smallSize++] = score;
+            } else {
+                large[largeSize++] = score;
+            }
+        }
+
+        while (smallSize > 0 && largeSize > 0) {
+            int less = small[--smallSize];
+            int more = large[--largeSize];
+
+            aliases[less] = more;
+            probabilities[more] = (probabilities[more] + probabilities[less]) - 1.0;
+
+            if (probabilities[more] < 1.0) {
+                small[smallSize++] = more;
+            } else {
+                large[largeSize++] = more;
+            }
+        }
+
+        // Whatever is left only differs from 1 by rounding errors.
+        while (largeSize > 0) {
+            probabilities[large[--largeSize]] = 1.0;
+        }
+
+        while (smallSize > 0) {
+            probabilities[small[--smallSize]] = 1.0;
+        }
+    }
+}
@@ -31,24 +31,38 @@ import java.util.Date;
 
 import lombok.Value;
 
+/**
+ * A single simulated score of a fixture.
+ *
+ * Items are keyed by the simulation they belong to and the fixture's position in it, so samples drawn
+ * at the same instant, or in parallel, never overwrite each other.
+ */
 @Value
 @DynamoDBTable(tableName = SimulatedMatch.TABLE_NAME)
 public class SimulatedMatch {
 
     public static final String TABLE_NAME = "SimulatedMatches";
 
-    private static final String LEAGUE_NAME = "LEAGUE_NAME";
-    private static final String SIMULATION_DATE = "SIMULATION_DATE";
-    private static final String HOME_TEAM = "HOME_TEAM";
-    private static final String AWAY_TEAM = "AWAY_TEAM";
-    private static final String HOME_TEAM_GOALS = "HOME_TEAM_GOALS";
-    private static final String AWAY_TEAM_GOALS = "AWAY_TEAM_GOALS";
-    private static final String MATCH_DATE = "MATCH_DATE";
+    public static final String SIMULATION_ID = "SIMULATION_ID";
+    public static final String FIXTURE = "FIXTURE";
+    public static final String LEAGUE_NAME = "LEAGUE_NAME";
+    public static final String SIMULATION_DATE = "SIMULATION_DATE";
+    public static final String HOME_TEAM = "HOME_TEAM";
+    public static final String AWAY_TEAM = "AWAY_TEAM";
+    public static final String HOME_TEAM_GOALS = "HOME_TEAM_GOALS";
+    public static final String AWAY_TEAM_GOALS = "AWAY_TEAM_GOALS";
+    public static final String MATCH_DATE = "MATCH_DATE";
+
+    @DynamoDBHashKey(attributeName = SIMULATION_ID)
+    private final String simulationId;
 
-    @DynamoDBRangeKey(attributeName = LEAGUE_NAME)
+    @DynamoDBRangeKey(attributeName = FIXTURE)
+    private final int fixture;
+
+    @DynamoDBAttribute(attributeName = LEAGUE_NAME)
     private final String leagueName;
 
-    @DynamoDBHashKey(attributeName = SIMULATION_DATE)
+    @DynamoDBAttribute(attributeName = SIMULATION_DATE)
     private final Instant simulationDate;
 
     @DynamoDBAttribute(attributeName = HOME_TEAM)
@@ -65,4 +79,13 @@ public class SimulatedMatch {
 
     @DynamoDBAttribute(attributeName = MATCH_DATE)
     private final Date matchDate;
+
+    /**
+     * @param runId Unique id of a run of simulations, e.g. {@link SimulationResult#getRunId()}.
+     * @param simulation Index of the simulation in the run.
+     * @return The id shared by every fixture of a single simulated season.
+     */
+    public static String getSimulationId(String runId, int simulation) {
+        return runId + "#" + simulation;
+    }
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.Getter;
+
+/**
+ * Simulated scores of a list of fixtures, stored as packed goals indexed by [fixture][simulation].
+ *
+ * The fixtures' metadata is only stored once, and {@link SimulatedMatch} objects are
+ * only created when asked for (e.g. to export them).
+ */
+public class SimulationResult {
+
+    @Getter
+    private final String leagueName;
+
+    @Getter
+    private final List<Match> fixtures;
+
+    @Getter
+    private final int numberOfSimulations;
+
+    @Getter
+    private final Instant simulationDate;
+
+    /**
+     * Unique id of these simulations, used to key their {@link SimulatedMatch simulated matches}.
+     */
+    @Getter
+    private final String runId;
+
+    private final byte[][] homeGoals;
+    private final byte[][] awayGoals;
+
+    public SimulationResult(String leagueName, List<Match> fixtures, int numberOfSimulations) {
+        this.leagueName = leagueName;
+        this.fixtures = fixtures;
+        this.numberOfSimulations = numberOfSimulations;
+        this.simulationDate = Instant.now();
+        this.runId = UUID.randomUUID().toString();
+        this.homeGoals = new byte[fixtures.size()][numberOfSimulations];
+        this.awayGoals = new byte[fixtures.size()][numberOfSimulations];
+    }
+
+    public void setScore(int fixture, int simulation, int homeGoals, int awayGoals) {
+        if (homeGoals > Byte.MAX_VALUE || awayGoals > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Simulated scores must not go over " + Byte.MAX_VALUE + " goals.");
+        }
+
+        this.homeGoals[fixture][simulation] = (byte) homeGoals;
+        this.awayGoals[fixture][simulation] = (byte) awayGoals;
+    }
+
+    public int getHomeGoals(int fixture, int simulation) {
+        return homeGoals[fixture][simulation];
+    }
+
+    public int getAwayGoals(int fixture, int simulation) {
+        return awayGoals[fixture][simulation];
+    }
+
+    public int getNumberOfFixtures() {
+        return fixtures.size();
+    }
+
+    public SimulatedMatch getSimulatedMatch(int fixture, int simulation) {
+        Match match = fixtures.get(fixture);
+
+        return new SimulatedMatch(SimulatedMatch.getSimulationId(runId, simulation), fixture, leagueName,
+                simulationDate, match.getHome(), match.getAway(),
+                getHomeGoals(fixture, simulation), getAwayGoals(fixture, simulation), match.getDate());
+    }
+
+    /**
+     * @return Every simulation of a single fixture.
+     */
+    public SimulatedMatch[] getSimulatedMatches(int fixture) {
+        SimulatedMatch[] simulatedMatches = new SimulatedMatch[numberOfSimulations];
+
+        for (int simulation = 0; simulation < numberOfSimulations; simulation++) {
+            simulatedMatches[simulation] = getSimulatedMatch(fixture, simulation);
+        }
+
+        return simulatedMatches;
+    }
+
+    /**
+     * @return Every fixture of a single simulation.
+     */
+    public List<SimulatedMatch> getSimulatedSeason(int simulation) {
+        List<SimulatedMatch> simulatedMatches = new ArrayList<>(fixtures.size());
+
+        for (int fixture = 0; fixture < fixtures.size(); fixture++) {
+            simulatedMatches.add(getSimulatedMatch(fixture, simulation));
+        }
+
+        return simulatedMatches;
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Standings of a league on reusable primitive arrays, indexed by dense team indexes.
+ * The indexes are local to the table and map back to {@link TeamRegistry} ids.
+ *
+ * A table is built once for a list of fixtures and then reset for every simulated season,
+ * so adding results and ranking the teams doesn't allocate anything.
+ * A table can also be reset to a baseline instead of an empty table, such as the results played so far.
+ * Not thread-safe: use one table per thread.
+ */
+public class StandingsTable {
+
+    private static final int STATS_PER_TEAM = 5;
+
+    private final List<Team> teams;
+    private final int[] teamIds;
+    private final int[] homeIndexes;
+    private final int[] awayIndexes;
+
+    // Teams in the order ties are left in, which is the order a HashMap<Team, Standing> iterates over them.
+    private final int[] tieOrder;
+
+    private final int[] wins;
+    private final int[] draws;
+    private final int[] losses;
+    private final int[] goalsFor;
+    private final int[] goalsAgainst;
+    private final int[] ranking;
+
+    // Standings reset() goes back to, shared with copies. Null for an empty table.
+    private int[][] baseline;
+
+    public StandingsTable(List<String> homeTeams, List<String> awayTeams) {
+        this(getIds(homeTeams), getIds(awayTeams));
+    }
+
+    /**
+     * @param homeTeamIds {@link TeamRegistry} id of the home team of each fixture.
+     * @param awayTeamIds {@link TeamRegistry} id of the away team of each fixture.
+     */
+    public StandingsTable(int[] homeTeamIds, int[] awayTeamIds) {
+        final TeamRegistry registry = TeamRegistry.getInstance();
+        int[] indexById = new int[registry.size()];
+        Arrays.fill(indexById, -1);
+
+        List<Integer> ids = new ArrayList<>();
+        Map<Team, Integer> iterationOrder = new HashMap<>();
+
+        homeIndexes = new int[homeTeamIds.length];
+        awayIndexes = new int[awayTeamIds.length];
+
+        for (int fixture = 0; fixture < homeTeamIds.length; fixture++) {
+            homeIndexes[fixture] = getOrAddIndex(indexById, ids, iterationOrder, homeTeamIds[fixture]);
+            awayIndexes[fixture] = getOrAddIndex(indexById, ids, iterationOrder, awayTeamIds[fixture]);
+        }
+
+        teamIds = ids.stream().mapToInt(Integer::intValue).toArray();
+        List<Team> teamList = new ArrayList<>();
+        for (int teamId : teamIds) {
+            teamList.add(registry.getTeam(teamId));
+        }
+        teams = Collections.unmodifiableList(teamList);
+
+        tieOrder = new int[teams.size()];
+        int position = 0;
+        for (Integer index : iterationOrder.values()) {
+            tieOrder[position++] = index;
+        }
+
+        wins = new int[teams.size()];
+        draws = new int[teams.size()];
+        losses = new int[teams.size()];
+        goalsFor = new int[teams.size()];
+        goalsAgainst = new int[teams.size()];
+        ranking = new int[teams.size()];
+    }
+
+    private StandingsTable(StandingsTable table) {
+        teams = table.teams;
+        teamIds = table.teamIds;
+        homeIndexes = table.homeIndexes;
+        awayIndexes = table.awayIndexes;
+        tieOrder = table.tieOrder;
+        baseline = table.baseline;
+
+        wins = new int[teams.size()];
+        draws = new int[teams.size()];
+        losses = new int[teams.size()];
+        goalsFor = new int[teams.size()];
+        goalsAgainst = new int[teams.size()];
+        ranking = new int[teams.size()];
+        reset();
+    }
+
+    public static StandingsTable of(List<Match> fixtures) {
+        int[] homeTeamIds = new int[fixtures.size()];
+        int[] awayTeamIds = new int[fixtures.size()];
+
+        for (int fixture = 0; fixture < fixtures.size(); fixture++) {
+            homeTeamIds[fixture] = fixtures.get(fixture).getHomeId();
+            awayTeamIds[fixture] = fixtures.get(fixture).getAwayId();
+        }
+
+        return new StandingsTable(homeTeamIds, awayTeamIds);
+    }
+
+    /**
+     * @return A table with the same teams, fixtures and baseline, but its own standings, starting from the baseline.
+     */
+    public StandingsTable copy() {
+        return new StandingsTable(this);
+    }
+
+    public int getNumberOfTeams() {
+        return teams.size();
+    }
+
+    public int getNumberOfFixtures() {
+        return homeIndexes.length;
+    }
+
+    public List<Team> getTeams() {
+        return teams;
+    }
+
+    public Team getTeam(int index) {
+        return teams.get(index);
+    }
+
+    /**
+     * @return The {@link TeamRegistry} id of the team in the given index.
+     */
+    public int getTeamId(int index) {
+        return teamIds[index];
+    }
+
+    public int getTeamIndex(String name) {
+        final int id = TeamRegistry.getInstance().getId(name);
+
+        for (int index = 0; index < teamIds.length; index++) {
+            if (teamIds[index] == id) {
+                return index;
+            }
+        }
+
+        throw new IllegalArgumentException("Team is not in this table: " + name);
+    }
+
+    public int getHomeIndex(int fixture) {
+        return homeIndexes[fixture];
+    }
+
+    public int getAwayIndex(int fixture) {
+        return awayIndexes[fixture];
+    }
+
+    /**
+     * Goes back to the baseline, or to an empty table if there's none.
+     */
+    public void reset() {
+        if (baseline != null) {
+            System.arraycopy(baseline[0], 0, wins, 0, wins.length);
+            System.arraycopy(baseline[1], 0, draws, 0, draws.length);
+            System.arraycopy(baseline[2], 0, losses, 0, losses.length);
+            System.arraycopy(baseline[3], 0, goalsFor, 0, goalsFor.length);
+            System.arraycopy(baseline[4], 0, goalsAgainst, 0, goalsAgainst.length);
+            return;
+        }
+
+        for (int team = 0; team < teams.size(); team++) {
+            wins[team] = 0;
+            draws[team] = 0;
+            losses[team] = 0;
+            goalsFor[team] = 0;
+            goalsAgainst[team] = 0;
+        }
+    }
+
+    /**
+     * Keeps the current standings, such as the results played so far in a season,
+     * as the baseline this table and its future copies reset to.
+     */
+    public void setBaseline() {
+        baseline = new int[][] {wins.clone(), draws.clone(), losses.clone(), goalsFor.clone(), goalsAgainst.clone()};
+    }
+
+    public void addResult(int fixture, int homeGoals, int awayGoals) {
+        final int home = homeIndexes[fixture];
+        final int away = awayIndexes[fixture];
+
+        goalsFor[home] += homeGoals;
+        goalsAgainst[home] += awayGoals;
+        goalsFor[away] += awayGoals;
+        goalsAgainst[away] += homeGoals;
+
+        if (homeGoals > awayGoals) {
+            wins[home]++;
+            losses[away]++;
+        } else if (homeGoals == awayGoals) {
+            draws[home]++;
+            draws[away]++;
+        } else {
+            losses[home]++;
+            wins[away]++;
+        }
+    }
+
+    /**
+     * Takes back a result added before, leaving the standings as if it never happened.
+     */
+    public void removeResult(int fixture, int homeGoals, int awayGoals) {
+        final int home = homeIndexes[fixture];
+        final int away = awayIndexes[fixture];
+
+        goalsFor[home] -= homeGoals;
+        goalsAgainst[home] -= awayGoals;
+        goalsFor[away] -= awayGoals;
+        goalsAgainst[away] -= homeGoals;
+
+        if (homeGoals > awayGoals) {
+            wins[home]--;
+            losses[away]--;
+        } else if (homeGoals == awayGoals) {
+            draws[home]--;
+            draws[away]--;
+        } else {
+            losses[home]--;
+            wins[away]--;
+        }
+    }
+
+    /**
+     * @return How many ints {@link #saveStandings(int[], int)} writes.
+     */
+    public int getStandingsSize() {
+        return teams.size() * STATS_PER_TEAM;
+    }
+
+    /**
+     * Packs the current standings into an array, so many seasons can be kept without a table for each.
+     */
+    public void saveStandings(int[] standings, int offset) {
+        final int numberOfTeams = teams.size();
+        System.arraycopy(wins, 0, standings, offset, numberOfTeams);
+        System.arraycopy(draws, 0, standings, offset + numberOfTeams, numberOfTeams);
+        System.arraycopy(losses, 0, standings, offset + numberOfTeams * 2, numberOfTeams);
+        System.arraycopy(goalsFor, 0, standings, offset + numberOfTeams * 3, numberOfTeams);
+        System.arraycopy(goalsAgainst, 0, standings, offset + numberOfTeams * 4, numberOfTeams);
+    }
+
+    /**
+     * Replaces the current standings with ones packed by {@link #saveStandings(int[], int)}.
+     */
+    public void loadStandings(int[] standings, int offset) {
+        final int numberOfTeams = teams.size();
+        System.arraycopy(standings, offset, wins, 0, numberOfTeams);
+        System.arraycopy(standings, offset + numberOfTeams, draws, 0, numberOfTeams);
+        System.arraycopy(standings, offset + numberOfTeams * 2, losses, 0, numberOfTeams);
+        System.arraycopy(standings, offset + numberOfTeams * 3, goalsFor, 0, numberOfTeams);
+        System.arraycopy(standings, offset + numberOfTeams * 4, goalsAgainst, 0, numberOfTeams);
+    }
+
+    /**
+     * Ranks the teams the same way {@link Standing#compareTo(Standing)} does:
+     * by points, goal difference and goals scored.
+     *
+     * @return The team index in each position. The array is reused by the next call.
+     */
+    public int[] rank() {
+        System.arraycopy(tieOrder, 0, ranking, 0, ranking.length);
+
+        // Insertion sort is stable, so ties stay in the order they'd come out of the HashMap.
+        int team;
+        int position;
+        for (int next = 1; next < ranking.length; next++) {
+            team = ranking[next];
+            position = next - 1;
+
+            while (position >= 0 && compare(ranking[position], team) > 0) {
+                ranking[position + 1] = ranking[position];
+                position--;
+            }
+
+            ranking[position + 1] = team;
+        }
+
+        return ranking;
+    }
+
+    public int getPoints(int team) {
+        return wins[team] * 3 + draws[team];
+    }
+
+    public int getGoalDifference(int team) {
+        return goalsFor[team] - goalsAgainst[team];
+    }
+
+    /**
+     * @return The standing of a single team, for reporting.
+     */
+    public Standing getStanding(int team) {
+        return new Standing(teams.get(team), wins[team], losses[team], draws[team],
+                goalsFor[team], goalsAgainst[team]);
+    }
+
+    private int compare(int a, int b) {
+        int comparison = Integer.compare(getPoints(b), getPoints(a));
+
+        if (comparison == 0) {
+            comparison = Integer.compare(getGoalDifference(b), getGoalDifference(a));
+        }
+
+        if (comparison == 0) {
+            comparison = Integer.compare(goalsFor[b], goalsFor[a]);
+        }
+
+        return comparison;
+    }
+
+    private static int getOrAddIndex(int[] indexById, List<Integer> ids, Map<Team, Integer> iterationOrder, int id) {
+        if (indexById[id] == -1) {
+            indexById[id] = ids.size();
+            ids.add(id);
+            iterationOrder.put(TeamRegistry.getInstance().getTeam(id), indexById[id]);
+        }
+
+        return indexById[id];
+    }
+
+    private static int[] getIds(List<String> names) {
+        final TeamRegistry registry = TeamRegistry.getInstance();
+        int[] ids = new int[names.size()];
+
+        for (int position = 0; position < ids.length; position++) {
+            ids[position] = registry.getId(names.get(position));
+        }
+
+        return ids;
+    }
+}
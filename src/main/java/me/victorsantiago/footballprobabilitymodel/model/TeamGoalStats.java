@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import lombok.Getter;
+
+/**
+ * Goal aggregates for every team in a list of matches, built in a single pass,
+ * so attack and defensive strengths can be looked up without going over the matches again.
+ * Teams are indexed by their {@link TeamRegistry} id.
+ */
+public class TeamGoalStats {
+
+    private int[] homeMatches = new int[0];
+    private long[] homeGoalsFor = new long[0];
+    private long[] homeGoalsAgainst = new long[0];
+    private int[] awayMatches = new int[0];
+    private long[] awayGoalsFor = new long[0];
+    private long[] awayGoalsAgainst = new long[0];
+
+    @Getter
+    private int numberOfMatches;
+
+    @Getter
+    private long homeGoals;
+
+    @Getter
+    private long awayGoals;
+
+    public static TeamGoalStats of(Collection<Match> matches) {
+        TeamGoalStats stats = new TeamGoalStats();
+        stats.ensureCapacity(TeamRegistry.getInstance().size());
+        matches.forEach(stats::add);
+        return stats;
+    }
+
+    public void add(Match match) {
+        final int home = match.getHomeId();
+        final int away = match.getAwayId();
+        ensureCapacity(Math.max(home, away) + 1);
+
+        numberOfMatches++;
+        homeGoals += match.getHomeGoals();
+        awayGoals += match.getAwayGoals();
+
+        homeMatches[home]++;
+        homeGoalsFor[home] += match.getHomeGoals();
+        homeGoalsAgainst[home] += match.getAwayGoals();
+
+        awayMatches[away]++;
+        awayGoalsFor[away] += match.getAwayGoals();
+        awayGoalsAgainst[away] += match.getHomeGoals();
+    }
+
+    /**
+     * Adds the aggregates of a single team directly, without going through its matches.
+     */
+    public void add(int team, int homeMatches, long homeGoalsFor, long homeGoalsAgainst,
+                    int awayMatches, long awayGoalsFor, long awayGoalsAgainst) {
+        ensureCapacity(team + 1);
+
+        this.homeMatches[team] += homeMatches;
+        this.homeGoalsFor[team] += homeGoalsFor;
+        this.homeGoalsAgainst[team] += homeGoalsAgainst;
+        this.awayMatches[team] += awayMatches;
+        this.awayGoalsFor[team] += awayGoalsFor;
+        this.awayGoalsAgainst[team] += awayGoalsAgainst;
+    }
+
+    /**
+     * Adds league-wide totals directly, without going through the matches.
+     */
+    public void addTotals(int numberOfMatches, long homeGoals, long awayGoals) {
+        this.numberOfMatches += numberOfMatches;
+        this.homeGoals += homeGoals;
+        this.awayGoals += awayGoals;
+    }
+
+    public double getAverageGoalsScoredAtHome() {
+        return getAverage(homeGoals, numberOfMatches);
+    }
+
+    public double getAverageGoalsScoredAway() {
+        return getAverage(awayGoals, numberOfMatches);
+    }
+
+    public double getAverageGoalsConcealedAtHome() {
+        return getAverageGoalsScoredAway();
+    }
+
+    public double getAverageGoalsConcealedAway() {
+        return getAverageGoalsScoredAtHome();
+    }
+
+    public double getAverageGoalsScoredAtHome(int team) {
+        return team < homeMatches.length ? getAverage(homeGoalsFor[team], homeMatches[team]) : 0.0;
+    }
+
+    public double getAverageGoalsScoredAway(int team) {
+        return team < awayMatches.length ? getAverage(awayGoalsFor[team], awayMatches[team]) : 0.0;
+    }
+
+    public double getAverageGoalsConcealedAtHome(int team) {
+        return team < homeMatches.length ? getAverage(homeGoalsAgainst[team], homeMatches[team]) : 0.0;
+    }
+
+    public double getAverageGoalsConcealedAway(int team) {
+        return team < awayMatches.length ? getAverage(awayGoalsAgainst[team], awayMatches[team]) : 0.0;
+    }
+
+    public double getAverageGoalsScoredAtHome(String team) {
+        return getAverageGoalsScoredAtHome(TeamRegistry.getInstance().getId(team));
+    }
+
+    public double getAverageGoalsScoredAway(String team) {
+        return getAverageGoalsScoredAway(TeamRegistry.getInstance().getId(team));
+    }
+
+    public double getAverageGoalsConcealedAtHome(String team) {
+        return getAverageGoalsConcealedAtHome(TeamRegistry.getInstance().getId(team));
+    }
+
+    public double getAverageGoalsConcealedAway(String team) {
+        return getAverageGoalsConcealedAway(TeamRegistry.getInstance().getId(team));
+    }
+
+    private double getAverage(long goals, int matches) {
+        if (matches == 0) {
+            return 0.00;
+        }
+
+        return ((double) goals) / matches;
+    }
+
+    private void ensureCapacity(int numberOfTeams) {
+        if (numberOfTeams <= homeMatches.length) {
+            return;
+        }
+
+        final int capacity = Math.max(numberOfTeams, homeMatches.length * 2);
+        homeMatches = Arrays.copyOf(homeMatches, capacity);
+        homeGoalsFor = Arrays.copyOf(homeGoalsFor, capacity);
+        homeGoalsAgainst = Arrays.copyOf(homeGoalsAgainst, capacity);
+        awayMatches = Arrays.copyOf(awayMatches, capacity);
+        awayGoalsFor = Arrays.copyOf(awayGoalsFor, capacity);
+        awayGoalsAgainst = Arrays.copyOf(awayGoalsAgainst, capacity);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns every team a dense integer id, so the calculations can run on arrays indexed by team
+ * instead of hashing team names. Ids are never reused or removed, and names are only looked up
+ * again when reporting results.
+ *
+ * It is filled when matches are loaded, but unknown teams are registered on their first lookup too.
+ *
+ * There's a single registry per process, since {@link Match} caches the ids of its teams. Ids depend on the order
+ * teams were first seen in this process, so they must never be persisted or shared with other processes:
+ * store and send team names instead, like {@link me.victorsantiago.footballprobabilitymodel.store.impl.BinaryMatchStore}
+ * does, and look their ids up again after loading them. Components wired by Guice get it injected from
+ * {@link me.victorsantiago.footballprobabilitymodel.modules.Modules}.
+ */
+public final class TeamRegistry {
+
+    private static final TeamRegistry INSTANCE = new TeamRegistry();
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+    private volatile int size;
+
+    private TeamRegistry() { }
+
+    public static TeamRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return The id of a team, registering it if it's the first time it shows up.
+     */
+    public int getId(String name) {
+        Integer id = ids.get(name);
+
+        if (id != null) {
+            return id;
+        }
+
+        return register(name);
+    }
+
+    public String getName(int id) {
+        if (id < 0 || id >= size) {
+            throw new IllegalArgumentException("Unknown team id: " + id);
+        }
+
+        return names[id];
+    }
+
+    public Team getTeam(int id) {
+        return new Team(getName(id));
+    }
+
+    /**
+     * @return How many teams were registered so far. Every id is lower than this.
+     */
+    public int size() {
+        return size;
+    }
+
+    private synchronized int register(String name) {
+        Integer existingId = ids.get(name);
+
+        if (existingId != null) {
+            return existingId;
+        }
+
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+        }
+
+        final int id = size;
+        names[id] = name;
+        size = id + 1;
+        ids.put(name, id);
+
+        return id;
+    }
+}
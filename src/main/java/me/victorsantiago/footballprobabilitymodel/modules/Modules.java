@@ -26,19 +26,28 @@ import com.google.inject.Provides;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 
+import me.victorsantiago.footballprobabilitymodel.calculator.impl.CachingCalculator;
 import me.victorsantiago.footballprobabilitymodel.calculator.impl.EloCalculator;
 import me.victorsantiago.footballprobabilitymodel.calculator.impl.PoissonCalculator;
 import me.victorsantiago.footballprobabilitymodel.metrics.Metrics;
 import me.victorsantiago.footballprobabilitymodel.metrics.impl.BrazilianChampionshipMetrics;
+import me.victorsantiago.footballprobabilitymodel.model.TeamRegistry;
 import me.victorsantiago.footballprobabilitymodel.simulation.Simulation;
+import me.victorsantiago.footballprobabilitymodel.telemetry.Telemetry;
 
 public class Modules extends AbstractModule {
 
     public static final String BRAZILIAN_CHAMPIONSHIP_METRICS_POISSON = "BrazilianChampionshipWithPoisson";
     public static final String BRAZILIAN_CHAMPIONSHIP_METRICS_ELO = "BrazilianChampionshipWithElo";
+    public static final String BRAZILIAN_CHAMPIONSHIP_METRICS_CACHED_POISSON = "BrazilianChampionshipWithCachedPoisson";
+
+    private static final long MATCH_PROBABILITY_CACHE_SIZE = 100_000;
 
     @Override
-    protected void configure() { }
+    protected void configure() {
+        bind(TeamRegistry.class).toInstance(TeamRegistry.getInstance());
+        bind(Telemetry.class).toInstance(Telemetry.getInstance());
+    }
 
     @Provides
     @Singleton
@@ -47,6 +56,16 @@ public class Modules extends AbstractModule {
         return new BrazilianChampionshipMetrics(new Simulation(new PoissonCalculator()));
     }
 
+    @Provides
+    @Singleton
+    @Named(BRAZILIAN_CHAMPIONSHIP_METRICS_CACHED_POISSON)
+    Metrics getBrazilianChampionshipCachedPoissonBasedMetrics(Telemetry telemetry) {
+        final CachingCalculator calculator = new CachingCalculator(new PoissonCalculator(), MATCH_PROBABILITY_CACHE_SIZE);
+        calculator.registerGauges(telemetry, BRAZILIAN_CHAMPIONSHIP_METRICS_CACHED_POISSON);
+
+        return new BrazilianChampionshipMetrics(new Simulation(calculator));
+    }
+
     @Provides
     @Singleton
     @Named(BRAZILIAN_CHAMPIONSHIP_METRICS_ELO)
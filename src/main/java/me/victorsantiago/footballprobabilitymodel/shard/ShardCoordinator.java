@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.shard;
+
+import com.google.gson.Gson;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import me.victorsantiago.footballprobabilitymodel.metrics.MetricsOptions;
+import me.victorsantiago.footballprobabilitymodel.model.LeagueMetrics;
+import me.victorsantiago.footballprobabilitymodel.model.PositionCounts;
+
+/**
+ * Splits the simulations of each league between a number of local {@link ShardWorker} processes,
+ * so they can use more than one JVM's worth of cores.
+ *
+ * Every worker simulates its share with its own seed, and sends back position counts,
+ * which are merged exactly before turning them into metrics.
+ * Not thread-safe: each worker only handles one task at a time.
+ * If talking to any worker fails, the coordinator closes all of them and can't be used anymore,
+ * since the other workers may still owe results from that task.
+ */
+public class ShardCoordinator implements AutoCloseable {
+
+    private static final Gson GSON = new Gson();
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    private final String metricsName;
+    private final List<String> matchFiles;
+    private final List<Worker> workers = new ArrayList<>();
+
+    private boolean closed;
+
+    /**
+     * Starts the worker processes, with the same JVM and classpath as this one.
+     *
+     * @param metricsName Name of the Metrics binding in the Modules the workers should use.
+     * @param matchFiles League files with all the past matches, which also have the leagues to simulate.
+     * @param numberOfWorkers How many worker processes to start.
+     */
+    public ShardCoordinator(String metricsName, List<String> matchFiles, int numberOfWorkers) throws IOException {
+        this(metricsName, matchFiles, numberOfWorkers, ShardWorker.class);
+    }
+
+    /**
+     * Starts the worker processes from the main method of another class, which must follow the
+     * {@link ShardWorker} protocol.
+     */
+    ShardCoordinator(String metricsName, List<String> matchFiles, int numberOfWorkers, Class<?> workerClass)
+            throws IOException {
+        if (numberOfWorkers <= 0) {
+            throw new IllegalArgumentException("There must be at least one worker.");
+        }
+
+        this.metricsName = metricsName;
+        this.matchFiles = new ArrayList<>(matchFiles);
+
+        final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        final String classpath = System.getProperty("java.class.path");
+
+        try {
+            for (int worker = 0; worker < numberOfWorkers; worker++) {
+                Process process = new ProcessBuilder(java, "-cp", classpath, workerClass.getName())
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+                workers.add(new Worker(process));
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public int getNumberOfWorkers() {
+        return workers.size();
+    }
+
+    /**
+     * Generates metrics for a list of leagues, one league at a time, each split between all workers.
+     *
+     * @return The metrics of each league, by name.
+     */
+    public Map<String, LeagueMetrics> generate(List<String> leagueNames, int historyLimit, int simulations,
+                                               MetricsOptions options) throws IOException {
+        Map<String, LeagueMetrics> results = new LinkedHashMap<>();
+
+        for (String leagueName : leagueNames) {
+            results.put(leagueName, generate(leagueName, historyLimit, simulations, options));
+        }
+
+        return results;
+    }
+
+    /**
+     * Generates metrics for a league, splitting its simulations between all workers.
+     *
+     * @param leagueName Name of the league to simulate, as found in the league files.
+     * @param historyLimit Limit of matches to be used from the past matches. Use -1 to use all.
+     * @param simulations Total number of simulated seasons.
+     * @param options Settings for the simulations. Only the seed is used, as workers always stream seasons.
+     * @return The metrics from all shards.
+     */
+    public LeagueMetrics generate(String leagueName, int historyLimit, int simulations, MetricsOptions options)
+            throws IOException {
+        return new LeagueMetrics(leagueName, generatePositionCounts(leagueName, historyLimit, simulations, options));
+    }
+
+    /**
+     * Splits the simulations of a league between all workers and merges the counts they send back.
+     * The seed of each shard comes from the league's seed, so the same seed and number of workers
+     * always give the same counts.
+     *
+     * @throws IOException If sending a task to a worker or reading its result fails. The coordinator is closed then.
+     * @throws IllegalStateException If a shard failed, or the coordinator was already closed.
+     */
+    public PositionCounts generatePositionCounts(String leagueName, int historyLimit, int simulations,
+                                                 MetricsOptions options) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Shard coordinator is closed.");
+        }
+
+        final SplittableRandom shardSeeds = new SplittableRandom(options.getSeed(leagueName));
+        final List<ShardResult> results;
+
+        try {
+            results = runShards(leagueName, historyLimit, simulations, shardSeeds);
+        } catch (IOException e) {
+            // The workers that didn't fail may still send results, which the next task would read as its own
+            close();
+            throw e;
+        }
+
+        PositionCounts counts = null;
+        for (ShardResult result : results) {
+            if (result.getError() != null) {
+                throw new IllegalStateException("Shard of " + leagueName + " failed: " + result.getError());
+            }
+
+            counts = counts == null ? result.getCounts() : counts.merge(result.getCounts());
+        }
+
+        if (counts == null) {
+            throw new IllegalArgumentException("There must be at least one simulation.");
+        }
+
+        return counts;
+    }
+
+    /**
+     * Sends each worker its share of the simulations and reads every result back,
+     * including failed shards, so the workers are ready for the next task.
+     */
+    private List<ShardResult> runShards(String leagueName, int historyLimit, int simulations,
+                                        SplittableRandom shardSeeds) throws IOException {
+        List<Worker> busyWorkers = new ArrayList<>();
+
+        int shardSimulations;
+        for (int shard = 0; shard < workers.size(); shard++) {
+            shardSimulations = simulations / workers.size() + (shard < simulations % workers.size() ? 1 : 0);
+
+            if (shardSimulations == 0) {
+                continue;
+            }
+
+            workers.get(shard).send(ShardTask.builder()
+                                             .metricsName(metricsName)
+                                             .matchFiles(matchFiles)
+                                             .leagueName(leagueName)
+                                             .historyLimit(historyLimit)
+                                             .simulations(shardSimulations)
+                                             .seed(shardSeeds.nextLong())
+                                             .build());
+            busyWorkers.add(workers.get(shard));
+        }
+
+        List<ShardResult> results = new ArrayList<>();
+        for (Worker worker : busyWorkers) {
+            results.add(worker.receive());
+        }
+
+        return results;
+    }
+
+    /**
+     * Closes the workers' input, so they finish, and waits for them to exit.
+     */
+    @Override
+    public void close() {
+        closed = true;
+
+        for (Worker worker : workers) {
+            worker.close();
+        }
+    }
+
+    private static class Worker {
+        private final Process process;
+        private final Writer input;
+        private final BufferedReader output;
+
+        private Worker(Process process) {
+            this.process = process;
+            this.input = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+            this.output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        private void send(ShardTask task) throws IOException {
+            input.write(GSON.toJson(task));
+            input.write(System.lineSeparator());
+            input.flush();
+        }
+
+        private ShardResult receive() throws IOException {
+            final String line = output.readLine();
+
+            if (line == null) {
+                throw new IOException("Shard worker closed its output before sending a result.");
+            }
+
+            return GSON.fromJson(line, ShardResult.class);
+        }
+
+        private void close() {
+            try {
+                input.close();
+
+                if (!process.waitFor(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (IOException e) {
+                process.destroyForcibly();
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
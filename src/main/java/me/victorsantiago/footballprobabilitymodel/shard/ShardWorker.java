@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.shard;
+
+import com.google.gson.Gson;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.name.Names;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import me.victorsantiago.footballprobabilitymodel.metrics.Metrics;
+import me.victorsantiago.footballprobabilitymodel.model.League;
+import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.model.PositionCounts;
+import me.victorsantiago.footballprobabilitymodel.modules.Modules;
+import me.victorsantiago.footballprobabilitymodel.util.SerializerUtil;
+
+/**
+ * Worker process for sharded simulations.
+ *
+ * Reads one {@link ShardTask} per line from stdin and writes one {@link ShardResult} per line to stdout,
+ * until stdin is closed. The league files are only read again when a task asks for different ones.
+ */
+public class ShardWorker {
+
+    private static final Gson GSON = new Gson();
+
+    private final Injector injector;
+
+    private List<String> loadedFiles;
+    private List<League> leagues;
+    private List<Match> allMatches;
+
+    public ShardWorker(Injector injector) {
+        this.injector = injector;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Anything else written to stdout would break the protocol.
+        final PrintStream output = new PrintStream(System.out, false, StandardCharsets.UTF_8.name());
+        System.setOut(System.err);
+
+        BufferedReader input = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        new ShardWorker(Guice.createInjector(new Modules())).run(input, output);
+    }
+
+    /**
+     * Runs tasks until there are no more lines to read.
+     */
+    public void run(BufferedReader input, PrintStream output) throws IOException {
+        String line;
+
+        while ((line = input.readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            output.println(GSON.toJson(run(GSON.fromJson(line, ShardTask.class))));
+            output.flush();
+        }
+    }
+
+    public ShardResult run(ShardTask task) {
+        try {
+            loadMatches(task.getMatchFiles());
+
+            final League league = leagues.stream()
+                                         .filter(x -> x.getName().equals(task.getLeagueName()))
+                                         .findFirst()
+                                         .orElseThrow(() -> new IllegalArgumentException(
+                                                 "League not found: " + task.getLeagueName()));
+
+            final Metrics metrics = injector.getInstance(Key.get(Metrics.class, Names.named(task.getMetricsName())));
+            final PositionCounts counts = metrics.generatePositionCounts(new ArrayList<>(allMatches),
+                    task.getHistoryLimit(), league, task.getSimulations(), task.getSeed());
+
+            return ShardResult.of(counts);
+        } catch (Exception e) {
+            return ShardResult.failed(e.toString());
+        }
+    }
+
+    private void loadMatches(List<String> matchFiles) throws IOException {
+        if (matchFiles.equals(loadedFiles)) {
+            return;
+        }
+
+        leagues = SerializerUtil.getLeagues(matchFiles.toArray(new String[0]));
+        allMatches = new ArrayList<>();
+        leagues.forEach(league -> allMatches.addAll(league.getMatches()));
+        loadedFiles = matchFiles;
+    }
+}
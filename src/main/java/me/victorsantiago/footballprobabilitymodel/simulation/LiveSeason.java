@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.simulation;
+
+import me.victorsantiago.footballprobabilitymodel.model.LeagueMetrics;
+import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.model.PositionCounts;
+import me.victorsantiago.footballprobabilitymodel.model.ScoreSampler;
+import me.victorsantiago.footballprobabilitymodel.model.StandingsTable;
+import me.victorsantiago.footballprobabilitymodel.telemetry.Telemetry;
+import me.victorsantiago.footballprobabilitymodel.telemetry.Timer;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import lombok.Getter;
+
+/**
+ * Simulated seasons that are kept after being ranked, so live results can be applied to them one at a time.
+ *
+ * Every simulation keeps its sampled scores, its final standings and its ranking. When a fixture's real result arrives,
+ * only the simulations that sampled a different score are updated and ranked again,
+ * instead of simulating every season from scratch.
+ * Updates are synchronized, and each one is spread over threads in chunks of simulations.
+ */
+public class LiveSeason {
+
+    private static final int SIMULATIONS_PER_CHUNK = 256;
+    private static final int NOT_REMAINING = -1;
+
+    private static final Timer UPDATE_TIMER = Telemetry.getInstance().timer("fpm_live_update_seconds",
+            "Time spent applying a live result to simulated seasons.");
+
+    @Getter
+    private final String leagueName;
+
+    private final StandingsTable table;
+    private final int numberOfSimulations;
+
+    // Position of each table fixture in the sampled scores, or NOT_REMAINING once it has a real result.
+    private final int[] slots;
+
+    // Sampled goals indexed by [slot][simulation].
+    private final byte[][] homeGoals;
+    private final byte[][] awayGoals;
+
+    // Final standings of every simulation, packed by StandingsTable.saveStandings.
+    private final int[] standings;
+
+    // Team index in each position, for every simulation.
+    private final int[] rankings;
+
+    private final PositionCounts counts;
+
+    @Getter
+    private int numberOfRemainingFixtures;
+
+    /**
+     * @param leagueName The name of the league you're simulating.
+     * @param table Standings table for the league's matches, with the results played so far as its baseline.
+     * @param fixtures Fixtures of the table left to be played.
+     * @param samplers The score sampler of each fixture left to be played, in the same order.
+     * @param times The amount of seasons to simulate.
+     * @param seed Seed of the random streams.
+     */
+    LiveSeason(String leagueName, StandingsTable table, int[] fixtures, ScoreSampler[] samplers, int times, long seed) {
+        this.leagueName = leagueName;
+        this.table = table;
+        this.numberOfSimulations = times;
+        this.numberOfRemainingFixtures = fixtures.length;
+        this.slots = new int[table.getNumberOfFixtures()];
+        this.homeGoals = new byte[fixtures.length][times];
+        this.awayGoals = new byte[fixtures.length][times];
+        this.standings = new int[times * table.getStandingsSize()];
+        this.rankings = new int[times * table.getNumberOfTeams()];
+
+        Arrays.fill(slots, NOT_REMAINING);
+        for (int slot = 0; slot < fixtures.length; slot++) {
+            slots[fixtures[slot]] = slot;
+        }
+
+        final SplittableRandom root = new SplittableRandom(seed);
+        final SplittableRandom[] streams = new SplittableRandom[getNumberOfChunks()];
+        for (int chunk = 0; chunk < streams.length; chunk++) {
+            streams[chunk] = root.split();
+        }
+
+        this.counts = IntStream.range(0, streams.length).parallel()
+                               .mapToObj(chunk -> simulate(fixtures, samplers, streams[chunk], chunk))
+                               .reduce(PositionCounts::merge)
+                               .orElseGet(() -> new PositionCounts(table.getTeams()));
+    }
+
+    /**
+     * Applies the real result of a fixture that was left to be played.
+     *
+     * @param match The fixture, with its final score.
+     */
+    public synchronized void setResult(Match match) {
+        for (int fixture = 0; fixture < slots.length; fixture++) {
+            if (slots[fixture] != NOT_REMAINING
+                    && table.getTeamId(table.getHomeIndex(fixture)) == match.getHomeId()
+                    && table.getTeamId(table.getAwayIndex(fixture)) == match.getAwayId()) {
+                setResult(fixture, match.getHomeGoals(), match.getAwayGoals());
+                return;
+            }
+        }
+
+        throw new IllegalArgumentException("Match is not left to be played: " + match.getHome() + " x " + match.getAway());
+    }
+
+    /**
+     * Applies the real result of a fixture that was left to be played.
+     *
+     * @param fixture Index of the fixture in the table.
+     * @param home Goals scored by the home team.
+     * @param away Goals scored by the away team.
+     */
+    public synchronized void setResult(int fixture, int home, int away) {
+        final int slot = slots[fixture];
+        if (slot == NOT_REMAINING) {
+            throw new IllegalArgumentException("Fixture " + fixture + " is not left to be played.");
+        }
+
+        toByte(home);
+        toByte(away);
+        final long start = UPDATE_TIMER.start();
+
+        IntStream.range(0, getNumberOfChunks()).parallel()
+                 .mapToObj(chunk -> update(fixture, slot, home, away, chunk))
+                 .reduce(PositionCounts::merge)
+                 .ifPresent(counts::merge);
+
+        slots[fixture] = NOT_REMAINING;
+        numberOfRemainingFixtures--;
+        UPDATE_TIMER.stop(start);
+    }
+
+    /**
+     * @return The metrics of the simulated seasons, with every result applied so far.
+     */
+    public synchronized LeagueMetrics getMetrics() {
+        return new LeagueMetrics(leagueName, counts);
+    }
+
+    private PositionCounts simulate(int[] fixtures, ScoreSampler[] samplers, SplittableRandom random, int chunk) {
+        final StandingsTable chunkTable = table.copy();
+        final int standingsSize = chunkTable.getStandingsSize();
+        PositionCounts chunkCounts = new PositionCounts(chunkTable.getTeams());
+
+        int score;
+        for (int simulation = getFirstSimulation(chunk); simulation < getLastSimulation(chunk); simulation++) {
+            chunkTable.reset();
+
+            for (int slot = 0; slot < samplers.length; slot++) {
+                score = samplers[slot].sample(random.nextDouble());
+                homeGoals[slot][simulation] = toByte(samplers[slot].getHomeGoals(score));
+                awayGoals[slot][simulation] = toByte(samplers[slot].getAwayGoals(score));
+                chunkTable.addResult(fixtures[slot], homeGoals[slot][simulation], awayGoals[slot][simulation]);
+            }
+
+            chunkTable.saveStandings(standings, simulation * standingsSize);
+            chunkCounts.increment(saveRanking(chunkTable.rank(), simulation));
+        }
+
+        return chunkCounts;
+    }
+
+    /**
+     * Swaps the sampled score of a fixture for the real one in every simulation of a chunk that sampled another score.
+     *
+     * @return How the position counts changed, to be merged into the whole counts.
+     */
+    private PositionCounts update(int fixture, int slot, int home, int away, int chunk) {
+        final StandingsTable chunkTable = table.copy();
+        final int standingsSize = chunkTable.getStandingsSize();
+        final int[] previousRanking = new int[chunkTable.getNumberOfTeams()];
+        PositionCounts delta = new PositionCounts(chunkTable.getTeams());
+
+        for (int simulation = getFirstSimulation(chunk); simulation < getLastSimulation(chunk); simulation++) {
+            if (homeGoals[slot][simulation] == home && awayGoals[slot][simulation] == away) {
+                continue;
+            }
+
+            System.arraycopy(rankings, simulation * previousRanking.length, previousRanking, 0, previousRanking.length);
+            delta.decrement(previousRanking);
+
+            chunkTable.loadStandings(standings, simulation * standingsSize);
+
+            chunkTable.removeResult(fixture, homeGoals[slot][simulation], awayGoals[slot][simulation]);
+            chunkTable.addResult(fixture, home, away);
+            homeGoals[slot][simulation] = toByte(home);
+            awayGoals[slot][simulation] = toByte(away);
+
+            chunkTable.saveStandings(standings, simulation * standingsSize);
+            delta.increment(saveRanking(chunkTable.rank(), simulation));
+        }
+
+        return delta;
+    }
+
+    private int[] saveRanking(int[] ranking, int simulation) {
+        System.arraycopy(ranking, 0, rankings, simulation * ranking.length, ranking.length);
+        return ranking;
+    }
+
+    private int getNumberOfChunks() {
+        return (numberOfSimulations + SIMULATIONS_PER_CHUNK - 1) / SIMULATIONS_PER_CHUNK;
+    }
+
+    private int getFirstSimulation(int chunk) {
+        return chunk * SIMULATIONS_PER_CHUNK;
+    }
+
+    private int getLastSimulation(int chunk) {
+        return Math.min(numberOfSimulations, (chunk + 1) * SIMULATIONS_PER_CHUNK);
+    }
+
+    private static byte toByte(int goals) {
+        if (goals > Byte.MAX_VALUE || goals < 0) {
+            throw new IllegalArgumentException("Scores must be between 0 and " + Byte.MAX_VALUE + " goals.");
+        }
+
+        return (byte) goals;
+    }
+}
@@ -25,14 +25,23 @@ import com.google.inject.Inject;
 import lombok.AllArgsConstructor;
 import me.victorsantiago.footballprobabilitymodel.calculator.Calculator;
 import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.model.MatchHistoryIndex;
 import me.victorsantiago.footballprobabilitymodel.model.MatchProbability;
+import me.victorsantiago.footballprobabilitymodel.model.PositionCounts;
+import me.victorsantiago.footballprobabilitymodel.model.ScoreSampler;
 import me.victorsantiago.footballprobabilitymodel.model.SimulatedMatch;
+import me.victorsantiago.footballprobabilitymodel.model.SimulationResult;
+import me.victorsantiago.footballprobabilitymodel.model.StandingsTable;
+import me.victorsantiago.footballprobabilitymodel.telemetry.Counter;
+import me.victorsantiago.footballprobabilitymodel.telemetry.Telemetry;
+import me.victorsantiago.footballprobabilitymodel.telemetry.Timer;
 
-import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.SplittableRandom;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.IntStream;
 
@@ -40,17 +49,229 @@ import java.util.stream.IntStream;
 public class Simulation {
 
     private static final String NO_LEAGUE = "UNKNOWN";
+    private static final int SEASONS_PER_CHUNK = 256;
+
+    private static final String SAMPLING_TIMER = "fpm_simulation_sampling_seconds";
+    private static final String SAMPLING_TIMER_HELP = "Time spent sampling scores, by what is being simulated.";
+    private static final Timer MATCHES_TIMER = Telemetry.getInstance().timer(SAMPLING_TIMER, SAMPLING_TIMER_HELP,
+            "unit", "matches");
+    private static final Timer SEASONS_TIMER = Telemetry.getInstance().timer(SAMPLING_TIMER, SAMPLING_TIMER_HELP,
+            "unit", "seasons");
+    private static final Counter SIMULATED_MATCHES = Telemetry.getInstance().counter("fpm_simulated_matches_total",
+            "Scores sampled, counting every simulation of every match.");
+    private static final Counter SIMULATED_SEASONS = Telemetry.getInstance().counter("fpm_simulated_seasons_total",
+            "Whole seasons simulated.");
 
     private final Calculator calculator;
 
+    /**
+     * Simulates a list of matches N number of times, all of them using the same past matches.
+     * The simulations are materialised into {@link SimulatedMatch} objects; prefer the methods
+     * returning a {@link SimulationResult} when that's not needed.
+     *
+     * @param leagueName The name of the league you're simulating (for DB purposes).
+     * @param matches The matches you want to simulate.
+     * @param pastMatches The matches that happened before those.
+     * @param times The amount of times you want to simulate each match.
+     * @return Each match and its N simulations.
+     */
     public Map<Match, SimulatedMatch[]> simulate(String leagueName, List<Match> matches, List<Match> pastMatches, int times) {
-        Map<Match, SimulatedMatch[]> simulatedMatches = new ConcurrentHashMap<>();
+        SimulationResult result = simulateResult(leagueName, matches, pastMatches, times);
+        Map<Match, SimulatedMatch[]> simulatedMatches = new HashMap<>();
 
-        matches.parallelStream().forEach(match -> simulatedMatches.put(match, simulate(leagueName, match, pastMatches, times)));
+        for (int fixture = 0; fixture < matches.size(); fixture++) {
+            simulatedMatches.put(matches.get(fixture), result.getSimulatedMatches(fixture));
+        }
 
         return simulatedMatches;
     }
 
+    /**
+     * Simulates a list of matches N number of times, all of them using the same past matches.
+     *
+     * @param leagueName The name of the league you're simulating (for DB purposes).
+     * @param matches The matches you want to simulate.
+     * @param pastMatches The matches that happened before those.
+     * @param times The amount of times you want to simulate each match.
+     * @return The simulated scores of every match.
+     */
+    public SimulationResult simulateResult(String leagueName, List<Match> matches, List<Match> pastMatches, int times) {
+        List<MatchProbability> probabilities = calculator.getMatchesProbabilities(matches, new ArrayList<>(pastMatches));
+        return simulateFromProbabilities(leagueName, matches, probabilities, times);
+    }
+
+    /**
+     * Simulates a list of matches N number of times from probabilities calculated beforehand.
+     *
+     * @param leagueName The name of the league you're simulating (for DB purposes).
+     * @param matches The matches you want to simulate.
+     * @param probabilities The probabilities of each match, in the same order.
+     * @param times The amount of times you want to simulate each match.
+     * @return The simulated scores of every match.
+     */
+    public SimulationResult simulateFromProbabilities(String leagueName, List<Match> matches,
+                                                      List<MatchProbability> probabilities, int times) {
+        return simulateFromProbabilities(leagueName, matches, probabilities, times, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Simulates a list of matches N number of times from probabilities calculated beforehand.
+     * Each match gets its own random stream split from the seed, so the same seed always gives
+     * the same scores, no matter how the matches are spread over threads.
+     *
+     * @param leagueName The name of the league you're simulating (for DB purposes).
+     * @param matches The matches you want to simulate.
+     * @param probabilities The probabilities of each match, in the same order.
+     * @param times The amount of times you want to simulate each match.
+     * @param seed Seed of the random streams.
+     * @return The simulated scores of every match.
+     */
+    public SimulationResult simulateFromProbabilities(String leagueName, List<Match> matches,
+                                                      List<MatchProbability> probabilities, int times, long seed) {
+        return simulateFromProbabilities(leagueName, matches, probabilities, times, seed, true);
+    }
+
+    /**
+     * Same as {@link #simulateFromProbabilities(String, List, List, int, long)}, but entirely on the calling thread,
+     * for callers that schedule the work themselves. The same seed gives the same scores either way.
+     */
+    public SimulationResult simulateFromProbabilitiesSequentially(String leagueName, List<Match> matches,
+                                                                  List<MatchProbability> probabilities, int times,
+                                                                  long seed) {
+        return simulateFromProbabilities(leagueName, matches, probabilities, times, seed, false);
+    }
+
+    private SimulationResult simulateFromProbabilities(String leagueName, List<Match> matches,
+                                                       List<MatchProbability> probabilities, int times, long seed,
+                                                       boolean parallel) {
+        final long start = MATCHES_TIMER.start();
+        final SplittableRandom[] streams = getRandomStreams(seed, matches.size());
+        SimulationResult result = new SimulationResult(leagueName, matches, times);
+
+        IntStream fixtures = IntStream.range(0, matches.size());
+        (parallel ? fixtures.parallel() : fixtures).forEach(
+                fixture -> simulate(result, fixture, probabilities.get(fixture).getSampler(), streams[fixture])
+        );
+
+        MATCHES_TIMER.stop(start);
+        SIMULATED_MATCHES.add((long) matches.size() * times);
+        return result;
+    }
+
+    /**
+     * Simulates whole seasons one at a time, folding each final table straight into position counters.
+     * Nothing is kept from a season once it's ranked, so memory doesn't grow with the number of simulations.
+     *
+     * @param table Standings table for the league's matches, copied for each worker.
+     * @param probabilities The probabilities of each match, in the same order as the table's fixtures.
+     * @param times The amount of seasons you want to simulate.
+     * @return How many times each team finished in each position.
+     */
+    public PositionCounts simulateSeasons(StandingsTable table, List<MatchProbability> probabilities, int times) {
+        return simulateSeasons(table, probabilities, times, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Simulates whole seasons one at a time, folding each final table straight into position counters.
+     * Seasons are simulated in fixed-size chunks, each with its own random stream split from the seed,
+     * so the same seed always gives the same counts, no matter how many threads run the chunks.
+     *
+     * @param table Standings table for the league's matches, copied for each worker.
+     * @param probabilities The probabilities of each match, in the same order as the table's fixtures.
+     * @param times The amount of seasons you want to simulate.
+     * @param seed Seed of the random streams.
+     * @return How many times each team finished in each position.
+     */
+    public PositionCounts simulateSeasons(StandingsTable table, List<MatchProbability> probabilities, int times,
+                                          long seed) {
+        return simulateSeasons(table, IntStream.range(0, table.getNumberOfFixtures()).toArray(), probabilities, times,
+                seed);
+    }
+
+    /**
+     * Same as {@link #simulateSeasons(StandingsTable, List, int, long)}, but only samples some of the table's fixtures.
+     * The others are left as they are in the table's baseline, such as matches that were already played.
+     *
+     * @param table Standings table for the league's matches, copied for each worker.
+     * @param fixtures Fixtures of the table to be simulated.
+     * @param probabilities The probabilities of each fixture to be simulated, in the same order.
+     * @param times The amount of seasons you want to simulate.
+     * @param seed Seed of the random streams.
+     * @return How many times each team finished in each position.
+     */
+    public PositionCounts simulateSeasons(StandingsTable table, int[] fixtures, List<MatchProbability> probabilities,
+                                          int times, long seed) {
+        final long start = SEASONS_TIMER.start();
+        final ScoreSampler[] samplers = getSamplers(probabilities);
+        final int chunks = (times + SEASONS_PER_CHUNK - 1) / SEASONS_PER_CHUNK;
+        final SplittableRandom[] streams = getRandomStreams(seed, chunks);
+
+        PositionCounts counts = IntStream.range(0, chunks).parallel()
+                                         .mapToObj(chunk -> simulateSeasons(table.copy(), fixtures, samplers,
+                                                 streams[chunk], chunk * SEASONS_PER_CHUNK,
+                                                 Math.min(times, (chunk + 1) * SEASONS_PER_CHUNK)))
+                                         .reduce(PositionCounts::merge)
+                                         .orElseGet(() -> new PositionCounts(table.getTeams()));
+
+        SEASONS_TIMER.stop(start);
+        SIMULATED_SEASONS.add(times);
+        SIMULATED_MATCHES.add((long) samplers.length * times);
+        return counts;
+    }
+
+    /**
+     * Same as {@link #simulateSeasons(StandingsTable, int[], List, int, long)}, but entirely on the calling thread,
+     * for callers that schedule the work themselves.
+     *
+     * @param table Standings table for the league's matches. It's copied, not changed.
+     * @param fixtures Fixtures of the table to be simulated.
+     * @param probabilities The probabilities of each fixture to be simulated, in the same order.
+     * @param times The amount of seasons you want to simulate.
+     * @param seed Seed of the random stream.
+     * @return How many times each team finished in each position.
+     */
+    public PositionCounts simulateSeasonsSequentially(StandingsTable table, int[] fixtures,
+                                                      List<MatchProbability> probabilities, int times, long seed) {
+        return simulateSeasonsSequentially(table, fixtures, getSamplers(probabilities), times, seed);
+    }
+
+    /**
+     * Same as {@link #simulateSeasonsSequentially(StandingsTable, int[], List, int, long)}, with the samplers
+     * collected beforehand by {@link #getSamplers(List)}, for callers that run many batches of the same fixtures.
+     */
+    public PositionCounts simulateSeasonsSequentially(StandingsTable table, int[] fixtures, ScoreSampler[] samplers,
+                                                      int times, long seed) {
+        final long start = SEASONS_TIMER.start();
+        PositionCounts counts = simulateSeasons(table.copy(), fixtures, samplers, new SplittableRandom(seed), 0, times);
+
+        SEASONS_TIMER.stop(start);
+        SIMULATED_SEASONS.add(times);
+        SIMULATED_MATCHES.add((long) fixtures.length * times);
+        return counts;
+    }
+
+    /**
+     * Simulates whole seasons and keeps them, so live results can be applied later without simulating them again.
+     *
+     * @param leagueName The name of the league you're simulating.
+     * @param table Standings table for the league's matches, with the results played so far as its baseline.
+     * @param fixtures Fixtures of the table left to be played.
+     * @param probabilities The probabilities of each fixture left to be played, in the same order.
+     * @param times The amount of seasons you want to simulate.
+     * @param seed Seed of the random streams.
+     * @return The simulated seasons.
+     */
+    public LiveSeason simulateLive(String leagueName, StandingsTable table, int[] fixtures,
+                                   List<MatchProbability> probabilities, int times, long seed) {
+        final long start = SEASONS_TIMER.start();
+        LiveSeason season = new LiveSeason(leagueName, table, fixtures, getSamplers(probabilities), times, seed);
+
+        SEASONS_TIMER.stop(start);
+        SIMULATED_SEASONS.add(times);
+        SIMULATED_MATCHES.add((long) fixtures.length * times);
+        return season;
+    }
+
     /**
      * Simulates a given match N number of times.
      *
@@ -62,45 +283,92 @@ public class Simulation {
      */
     public SimulatedMatch[] simulate(String leagueName, Match match, List<Match> pastMatches, int times) {
         MatchProbability probability = calculator.getMatchProbability(match, new ArrayList<>(pastMatches));
-        SimulatedMatch[] simulatedMatches = new SimulatedMatch[times];
-
-        IntStream.range(0, times).parallel().forEach(
-                n -> simulatedMatches[n] = getRandomSimulation(leagueName, probability, match)
-        );
+        return simulateFromProbabilities(leagueName, Collections.singletonList(match),
+                Collections.singletonList(probability), times)
+                .getSimulatedMatches(0);
+    }
 
-        return simulatedMatches;
+    /**
+     * Simulates a given match N number of times, using a window of an indexed history as past matches.
+     *
+     * @param leagueName The name of the league you're simulating (for DB purposes).
+     * @param match The match you want to simulate.
+     * @param history The indexed history.
+     * @param from First position of the window, inclusive.
+     * @param to Last position of the window, exclusive.
+     * @param times The amount of times you want to simulate the given match.
+     * @return A list of this match simulated N times.
+     */
+    public SimulatedMatch[] simulate(String leagueName, Match match, MatchHistoryIndex history, int from, int to, int times) {
+        MatchProbability probability = getMatchProbability(match, history, from, to);
+        return simulateFromProbabilities(leagueName, Collections.singletonList(match),
+                Collections.singletonList(probability), times)
+                .getSimulatedMatches(0);
     }
 
     public SimulatedMatch[] simulate(Match match, List<Match> pastMatches, int times) {
         return simulate(NO_LEAGUE, match, pastMatches, times);
     }
 
-    private SimulatedMatch getRandomSimulation(final String league, MatchProbability matchProbability, Match originalMatch) {
-        double totalProbabilities = matchProbability.getTotalSumOfProbabilities();
-        final double[][] scoreProbabilities = matchProbability.getScoreProbability();
-        final int goalLimit = scoreProbabilities.length;
+    /**
+     * Calculates the probabilities of a match using a window of an indexed history as past matches.
+     */
+    public MatchProbability getMatchProbability(Match match, MatchHistoryIndex history, int from, int to) {
+        return calculator.getMatchProbability(match, history, from, to);
+    }
+
+    private void simulate(SimulationResult result, int fixture, ScoreSampler sampler, SplittableRandom random) {
+        int score;
+        for (int simulation = 0; simulation < result.getNumberOfSimulations(); simulation++) {
+            score = sampler.sample(random.nextDouble());
+            result.setScore(fixture, simulation, sampler.getHomeGoals(score), sampler.getAwayGoals(score));
+        }
+    }
 
-        double randomValue = ThreadLocalRandom.current().nextDouble(0, totalProbabilities);
+    private PositionCounts simulateSeasons(StandingsTable table, int[] fixtures, ScoreSampler[] samplers,
+                                           SplittableRandom random, int firstSeason, int lastSeason) {
+        PositionCounts counts = new PositionCounts(table.getTeams());
 
-        int homeScore = 0;
-        int awayScore = 0;
-        for (int homeGoal = goalLimit - 1; homeGoal >= 0; homeGoal--) {
-            for (int awayGoal = goalLimit - 1; awayGoal >= 0; awayGoal--) {
-                randomValue -= scoreProbabilities[homeGoal][awayGoal];
+        int score;
+        for (int season = firstSeason; season < lastSeason; season++) {
+            table.reset();
 
-                if (randomValue <= 0.0) {
-                    homeScore = homeGoal;
-                    awayScore = awayGoal;
-                    break;
-                }
+            for (int fixture = 0; fixture < samplers.length; fixture++) {
+                score = samplers[fixture].sample(random.nextDouble());
+                table.addResult(fixtures[fixture], samplers[fixture].getHomeGoals(score),
+                        samplers[fixture].getAwayGoals(score));
             }
 
-            if (randomValue <= 0.0) {
-                break;
-            }
+            counts.increment(table.rank());
+        }
+
+        return counts;
+    }
+
+    /**
+     * Splits the given number of independent random streams from a seed, always in the same order.
+     */
+    private SplittableRandom[] getRandomStreams(long seed, int count) {
+        final SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[count];
+
+        for (int stream = 0; stream < count; stream++) {
+            streams[stream] = root.split();
+        }
+
+        return streams;
+    }
+
+    /**
+     * @return The score sampler of each match, in the same order.
+     */
+    public static ScoreSampler[] getSamplers(List<MatchProbability> probabilities) {
+        ScoreSampler[] samplers = new ScoreSampler[probabilities.size()];
+
+        for (int fixture = 0; fixture < samplers.length; fixture++) {
+            samplers[fixture] = probabilities.get(fixture).getSampler();
         }
 
-        return new SimulatedMatch(league, Instant.now(), originalMatch.getHome(), originalMatch.getAway(),
-                homeScore, awayScore, originalMatch.getDate());
+        return samplers;
     }
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.store;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import me.victorsantiago.footballprobabilitymodel.model.League;
+import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.model.TeamRegistry;
+
+/**
+ * Column-oriented store of matches, grouped by league.
+ *
+ * Every field of a match is read by its position, so going over the matches doesn't allocate anything.
+ * Teams are {@link TeamRegistry} ids and dates are days since the epoch, in UTC.
+ * {@link Match} and {@link League} objects are only built when asked for.
+ */
+public interface MatchStore {
+
+    int getNumberOfMatches();
+
+    int getHomeTeamId(int match);
+
+    int getAwayTeamId(int match);
+
+    int getEpochDay(int match);
+
+    int getHomeGoals(int match);
+
+    int getAwayGoals(int match);
+
+    double getK(int match);
+
+    int getNumberOfLeagues();
+
+    String getLeagueName(int league);
+
+    String getLeagueChampion(int league);
+
+    int getLeagueYear(int league);
+
+    /**
+     * @return The position of the league's first match.
+     */
+    int getFirstMatch(int league);
+
+    /**
+     * @return How many matches the league has. They come one after the other, starting at its first match.
+     */
+    int getLeagueSize(int league);
+
+    /**
+     * Builds a single match, for code that still works on objects.
+     * The date is the start of the match's day, in UTC.
+     */
+    default Match getMatch(int match) {
+        final TeamRegistry registry = TeamRegistry.getInstance();
+
+        return Match.builder()
+                    .home(registry.getName(getHomeTeamId(match)))
+                    .away(registry.getName(getAwayTeamId(match)))
+                    .homeGoals(getHomeGoals(match))
+                    .awayGoals(getAwayGoals(match))
+                    .date(new Date(getEpochDay(match) * Match.MILLISECONDS_PER_DAY))
+                    .k(getK(match))
+                    .build();
+    }
+
+    /**
+     * Builds every league with its matches, for code that still works on objects.
+     */
+    default List<League> getLeagues() {
+        List<League> leagues = new ArrayList<>(getNumberOfLeagues());
+
+        League league;
+        for (int index = 0; index < getNumberOfLeagues(); index++) {
+            league = new League();
+            league.setName(getLeagueName(index));
+            league.setChampion(getLeagueChampion(index));
+            league.setYear(getLeagueYear(index));
+            league.setMatches(new ArrayList<>(getLeagueSize(index)));
+
+            for (int match = getFirstMatch(index); match < getFirstMatch(index) + getLeagueSize(index); match++) {
+                league.getMatches().add(getMatch(match));
+            }
+
+            leagues.add(league);
+        }
+
+        return leagues;
+    }
+}
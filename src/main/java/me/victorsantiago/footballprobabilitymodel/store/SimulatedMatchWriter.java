@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.store;
+
+import me.victorsantiago.footballprobabilitymodel.model.SimulatedMatch;
+import me.victorsantiago.footballprobabilitymodel.model.SimulationResult;
+
+/**
+ * Persists simulated matches. Writes may be buffered and sent in the background,
+ * so they are only guaranteed to be stored once {@link #flush()} or {@link #close()} returns.
+ */
+public interface SimulatedMatchWriter extends AutoCloseable {
+
+    void write(SimulatedMatch simulatedMatch);
+
+    /**
+     * Writes every simulated match of the result, fixture by fixture.
+     */
+    default void write(SimulationResult result) {
+        for (int fixture = 0; fixture < result.getNumberOfFixtures(); fixture++) {
+            for (int simulation = 0; simulation < result.getNumberOfSimulations(); simulation++) {
+                write(result.getSimulatedMatch(fixture, simulation));
+            }
+        }
+    }
+
+    /**
+     * Waits until everything written so far is stored.
+     *
+     * @throws IllegalStateException If some of the matches couldn't be stored.
+     */
+    void flush();
+
+    @Override
+    default void close() {
+        flush();
+    }
+}
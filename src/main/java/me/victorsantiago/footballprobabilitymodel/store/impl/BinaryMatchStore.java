@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.store.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import me.victorsantiago.footballprobabilitymodel.model.League;
+import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.model.TeamRegistry;
+import me.victorsantiago.footballprobabilitymodel.store.MatchStore;
+import me.victorsantiago.footballprobabilitymodel.util.SerializerUtil;
+
+/**
+ * Match store on a memory-mapped binary file, so matches are read straight from the page cache
+ * instead of being parsed and turned into objects.
+ *
+ * The file has a header with the team names and the leagues, followed by one column per field:
+ * home team, away team and epoch day as ints, home and away goals as unsigned bytes, and K as doubles.
+ * Teams are numbered in the order they show up in the file, and mapped to registry ids when it's opened.
+ */
+public class BinaryMatchStore implements MatchStore {
+
+    private static final int FILE_MAGIC = 0x4D415443;
+    private static final int FILE_VERSION = 1;
+    private static final int MAX_GOALS = 255;
+
+    private final MappedByteBuffer buffer;
+    private final int[] teamIds;
+    private final String[] leagueNames;
+    private final String[] leagueChampions;
+    private final int[] leagueYears;
+    private final int[] firstMatches;
+    private final int[] leagueSizes;
+
+    private final int numberOfMatches;
+    private final int homeTeamOffset;
+    private final int awayTeamOffset;
+    private final int epochDayOffset;
+    private final int homeGoalsOffset;
+    private final int awayGoalsOffset;
+    private final int kOffset;
+
+    private BinaryMatchStore(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+
+        if (buffer.getInt() != FILE_MAGIC || buffer.getInt() != FILE_VERSION) {
+            throw new IOException("Not a binary match store file.");
+        }
+
+        final TeamRegistry registry = TeamRegistry.getInstance();
+        teamIds = new int[buffer.getInt()];
+        for (int team = 0; team < teamIds.length; team++) {
+            teamIds[team] = registry.getId(readString(buffer));
+        }
+
+        final int numberOfLeagues = buffer.getInt();
+        leagueNames = new String[numberOfLeagues];
+        leagueChampions = new String[numberOfLeagues];
+        leagueYears = new int[numberOfLeagues];
+        firstMatches = new int[numberOfLeagues];
+        leagueSizes = new int[numberOfLeagues];
+
+        for (int league = 0; league < numberOfLeagues; league++) {
+            leagueNames[league] = readString(buffer);
+            leagueChampions[league] = readString(buffer);
+            leagueYears[league] = buffer.getInt();
+            firstMatches[league] = buffer.getInt();
+            leagueSizes[league] = buffer.getInt();
+        }
+
+        numberOfMatches = buffer.getInt();
+        homeTeamOffset = buffer.position();
+        awayTeamOffset = homeTeamOffset + numberOfMatches * Integer.BYTES;
+        epochDayOffset = awayTeamOffset + numberOfMatches * Integer.BYTES;
+        homeGoalsOffset = epochDayOffset + numberOfMatches * Integer.BYTES;
+        awayGoalsOffset = homeGoalsOffset + numberOfMatches;
+        kOffset = awayGoalsOffset + numberOfMatches;
+
+        if (buffer.limit() != kOffset + numberOfMatches * Double.BYTES) {
+            throw new IOException("Binary match store file is truncated.");
+        }
+    }
+
+    /**
+     * Maps a binary match store file into memory.
+     */
+    public static BinaryMatchStore open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new BinaryMatchStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Converts JSON league files, as read by {@link SerializerUtil#getLeagues(String)}, to a binary match store file.
+     */
+    public static void convert(Path output, String... jsonPaths) throws IOException {
+        write(output, SerializerUtil.getLeagues(jsonPaths));
+    }
+
+    /**
+     * Writes leagues to a binary match store file, keeping the order of the leagues and their matches.
+     * Times of day are dropped, as dates are saved as days.
+     */
+    public static void write(Path output, List<League> leagues) throws IOException {
+        List<Match> matches = new ArrayList<>();
+        leagues.forEach(league -> matches.addAll(league.getMatches()));
+
+        Map<String, Integer> teams = new HashMap<>();
+        for (Match match : matches) {
+            teams.putIfAbsent(match.getHome(), teams.size());
+            teams.putIfAbsent(match.getAway(), teams.size());
+        }
+
+        String[] names = new String[teams.size()];
+        teams.forEach((name, team) -> names[team] = name);
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+
+            out.writeInt(names.length);
+            for (String name : names) {
+                writeString(out, name);
+            }
+
+            out.writeInt(leagues.size());
+            int firstMatch = 0;
+            for (League league : leagues) {
+                writeString(out, league.getName());
+                writeString(out, league.getChampion());
+                out.writeInt(league.getYear());
+                out.writeInt(firstMatch);
+                out.writeInt(league.getMatches().size());
+                firstMatch += league.getMatches().size();
+            }
+
+            out.writeInt(matches.size());
+            for (Match match : matches) {
+                out.writeInt(teams.get(match.getHome()));
+            }
+            for (Match match : matches) {
+                out.writeInt(teams.get(match.getAway()));
+            }
+            for (Match match : matches) {
+                out.writeInt(match.getEpochDay());
+            }
+            for (Match match : matches) {
+                out.writeByte(getGoals(match.getHomeGoals()));
+            }
+            for (Match match : matches) {
+                out.writeByte(getGoals(match.getAwayGoals()));
+            }
+            for (Match match : matches) {
+                out.writeDouble(match.getK());
+            }
+        }
+    }
+
+    @Override
+    public int getNumberOfMatches() {
+        return numberOfMatches;
+    }
+
+    @Override
+    public int getHomeTeamId(int match) {
+        return teamIds[buffer.getInt(homeTeamOffset + match * Integer.BYTES)];
+    }
+
+    @Override
+    public int getAwayTeamId(int match) {
+        return teamIds[buffer.getInt(awayTeamOffset + match * Integer.BYTES)];
+    }
+
+    @Override
+    public int getEpochDay(int match) {
+        return buffer.getInt(epochDayOffset + match * Integer.BYTES);
+    }
+
+    @Override
+    public int getHomeGoals(int match) {
+        return buffer.get(homeGoalsOffset + match) & 0xFF;
+    }
+
+    @Override
+    public int getAwayGoals(int match) {
+        return buffer.get(awayGoalsOffset + match) & 0xFF;
+    }
+
+    @Override
+    public double getK(int match) {
+        return buffer.getDouble(kOffset + match * Double.BYTES);
+    }
+
+    @Override
+    public int getNumberOfLeagues() {
+        return leagueNames.length;
+    }
+
+    @Override
+    public String getLeagueName(int league) {
+        return leagueNames[league];
+    }
+
+    @Override
+    public String getLeagueChampion(int league) {
+        return leagueChampions[league];
+    }
+
+    @Override
+    public int getLeagueYear(int league) {
+        return leagueYears[league];
+    }
+
+    @Override
+    public int getFirstMatch(int league) {
+        return firstMatches[league];
+    }
+
+    @Override
+    public int getLeagueSize(int league) {
+        return leagueSizes[league];
+    }
+
+    private static int getGoals(int goals) {
+        if (goals < 0 || goals > MAX_GOALS) {
+            throw new IllegalArgumentException("Goals must be between 0 and " + MAX_GOALS + ": " + goals);
+        }
+
+        return goals;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        final int length = buffer.getInt();
+
+        if (length == -1) {
+            return null;
+        }
+
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.store.impl;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutRequest;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.google.common.annotations.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import me.victorsantiago.footballprobabilitymodel.model.SimulatedMatch;
+import me.victorsantiago.footballprobabilitymodel.store.SimulatedMatchWriter;
+import me.victorsantiago.footballprobabilitymodel.telemetry.Counter;
+import me.victorsantiago.footballprobabilitymodel.telemetry.Telemetry;
+
+/**
+ * Writes simulated matches to the {@link SimulatedMatch#TABLE_NAME} table with BatchWriteItem requests
+ * of up to {@link #MAX_BATCH_SIZE} items, sent on an executor.
+ *
+ * At most a fixed number of requests are pending at a time; once they are all taken, {@link #write(SimulatedMatch)}
+ * blocks until one finishes, so simulations can't outrun the table's capacity and fill up the memory.
+ * Items the table leaves unprocessed are sent again, after an exponential backoff with jitter.
+ */
+public class DynamoDBSimulatedMatchWriter implements SimulatedMatchWriter {
+
+    /**
+     * Most items DynamoDB accepts in a single BatchWriteItem request.
+     */
+    public static final int MAX_BATCH_SIZE = 25;
+
+    public static final int DEFAULT_MAX_PENDING_REQUESTS = 16;
+    public static final int DEFAULT_MAX_RETRIES = 10;
+    public static final long DEFAULT_RETRY_DELAY_MILLIS = 50;
+
+    private static final long MAX_RETRY_DELAY_MILLIS = 5_000;
+
+    private static final Counter WRITTEN_ITEMS = Telemetry.getInstance().counter("fpm_dynamodb_written_items_total",
+            "Simulated matches stored in DynamoDB.");
+    private static final Counter RETRIED_ITEMS = Telemetry.getInstance().counter("fpm_dynamodb_retried_items_total",
+            "Simulated matches left unprocessed by DynamoDB and sent again.");
+
+    private final AmazonDynamoDB client;
+    private final Executor executor;
+    private final int maxPendingRequests;
+    private final int maxRetries;
+    private final long retryDelayMillis;
+
+    private final Semaphore pendingRequests;
+    private final AtomicLong writtenItems = new AtomicLong();
+    private final AtomicLong retriedItems = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    private List<WriteRequest> buffer = new ArrayList<>(MAX_BATCH_SIZE);
+
+    public DynamoDBSimulatedMatchWriter(AmazonDynamoDB client, Executor executor) {
+        this(client, executor, DEFAULT_MAX_PENDING_REQUESTS, DEFAULT_MAX_RETRIES, DEFAULT_RETRY_DELAY_MILLIS);
+    }
+
+    /**
+     * @param client DynamoDB client. Requests are sent synchronously, from the executor's threads.
+     * @param executor Where requests are sent from. It isn't shut down by the writer.
+     * @param maxPendingRequests Most requests sent or waiting to be sent at a time.
+     * @param maxRetries How many times unprocessed items are sent again before giving up.
+     * @param retryDelayMillis Base of the backoff between retries, doubled on each of them.
+     */
+    public DynamoDBSimulatedMatchWriter(AmazonDynamoDB client, Executor executor, int maxPendingRequests,
+                                        int maxRetries, long retryDelayMillis) {
+        if (maxPendingRequests <= 0) {
+            throw new IllegalArgumentException("There must be room for at least one pending request.");
+        }
+
+        this.client = client;
+        this.executor = executor;
+        this.maxPendingRequests = maxPendingRequests;
+        this.maxRetries = maxRetries;
+        this.retryDelayMillis = retryDelayMillis;
+        this.pendingRequests = new Semaphore(maxPendingRequests);
+    }
+
+    @Override
+    public void write(SimulatedMatch simulatedMatch) {
+        final WriteRequest request = new WriteRequest().withPutRequest(new PutRequest().withItem(toItem(simulatedMatch)));
+        final List<WriteRequest> batch;
+
+        synchronized (this) {
+            buffer.add(request);
+            if (buffer.size() < MAX_BATCH_SIZE) {
+                return;
+            }
+
+            batch = buffer;
+            buffer = new ArrayList<>(MAX_BATCH_SIZE);
+        }
+
+        submit(batch);
+    }
+
+    @Override
+    public void flush() {
+        final List<WriteRequest> batch;
+
+        synchronized (this) {
+            batch = buffer;
+            buffer = new ArrayList<>(MAX_BATCH_SIZE);
+        }
+
+        if (!batch.isEmpty()) {
+            submit(batch);
+        }
+
+        pendingRequests.acquireUninterruptibly(maxPendingRequests);
+        pendingRequests.release(maxPendingRequests);
+        throwIfFailed();
+    }
+
+    public long getNumberOfWrittenItems() {
+        return writtenItems.get();
+    }
+
+    public long getNumberOfRetriedItems() {
+        return retriedItems.get();
+    }
+
+    public long getNumberOfRequests() {
+        return requests.get();
+    }
+
+    private void submit(List<WriteRequest> batch) {
+        throwIfFailed();
+        pendingRequests.acquireUninterruptibly();
+
+        try {
+            executor.execute(() -> {
+                try {
+                    writeBatch(batch);
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    pendingRequests.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingRequests.release();
+            throw e;
+        }
+    }
+
+    private void writeBatch(List<WriteRequest> batch) {
+        List<WriteRequest> items = batch;
+
+        for (int attempt = 0; ; attempt++) {
+            requests.incrementAndGet();
+            final Map<String, List<WriteRequest>> unprocessedItems = client.batchWriteItem(new BatchWriteItemRequest()
+                    .withRequestItems(Collections.singletonMap(SimulatedMatch.TABLE_NAME, items)))
+                    .getUnprocessedItems();
+
+            final List<WriteRequest> unprocessed = unprocessedItems == null
+                    ? Collections.emptyList()
+                    : unprocessedItems.getOrDefault(SimulatedMatch.TABLE_NAME, Collections.emptyList());
+
+            writtenItems.addAndGet(items.size() - unprocessed.size());
+            WRITTEN_ITEMS.add(items.size() - unprocessed.size());
+
+            if (unprocessed.isEmpty()) {
+                return;
+            }
+
+            if (attempt == maxRetries) {
+                throw new IllegalStateException(unprocessed.size() + " simulated matches were still unprocessed after "
+                        + maxRetries + " retries.");
+            }
+
+            retriedItems.addAndGet(unprocessed.size());
+            RETRIED_ITEMS.add(unprocessed.size());
+            backOff(attempt);
+            items = unprocessed;
+        }
+    }
+
+    private void backOff(int attempt) {
+        final long delay = Math.min(MAX_RETRY_DELAY_MILLIS, retryDelayMillis << Math.min(attempt, 20));
+        if (delay <= 0) {
+            return;
+        }
+
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(delay / 2, delay + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying unprocessed simulated matches.", e);
+        }
+    }
+
+    private void throwIfFailed() {
+        final RuntimeException cause = failure.get();
+        if (cause != null) {
+            throw new IllegalStateException("Some simulated matches couldn't be stored.", cause);
+        }
+    }
+
+    @VisibleForTesting
+    static Map<String, AttributeValue> toItem(SimulatedMatch simulatedMatch) {
+        Map<String, AttributeValue> item = new HashMap<>();
+
+        item.put(SimulatedMatch.SIMULATION_ID, new AttributeValue().withS(simulatedMatch.getSimulationId()));
+        item.put(SimulatedMatch.FIXTURE, new AttributeValue().withN(Integer.toString(simulatedMatch.getFixture())));
+        item.put(SimulatedMatch.LEAGUE_NAME, new AttributeValue().withS(simulatedMatch.getLeagueName()));
+        item.put(SimulatedMatch.SIMULATION_DATE,
+                new AttributeValue().withS(simulatedMatch.getSimulationDate().toString()));
+        item.put(SimulatedMatch.HOME_TEAM, new AttributeValue().withS(simulatedMatch.getHomeTeam()));
+        item.put(SimulatedMatch.AWAY_TEAM, new AttributeValue().withS(simulatedMatch.getAwayTeam()));
+        item.put(SimulatedMatch.HOME_TEAM_GOALS,
+                new AttributeValue().withN(Integer.toString(simulatedMatch.getHomeGoals())));
+        item.put(SimulatedMatch.AWAY_TEAM_GOALS,
+                new AttributeValue().withN(Integer.toString(simulatedMatch.getAwayGoals())));
+
+        if (simulatedMatch.getMatchDate() != null) {
+            item.put(SimulatedMatch.MATCH_DATE,
+                    new AttributeValue().withS(simulatedMatch.getMatchDate().toInstant().toString()));
+        }
+
+        return item;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.store.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import me.victorsantiago.footballprobabilitymodel.store.MatchStore;
+
+/**
+ * Match store on growable primitive arrays, filled one match at a time.
+ * Not thread-safe: fill one store per thread and {@link #append(InMemoryMatchStore)} them afterwards.
+ */
+public class InMemoryMatchStore implements MatchStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int numberOfMatches;
+    private int[] homeTeamIds;
+    private int[] awayTeamIds;
+    private int[] epochDays;
+    private byte[] homeGoals;
+    private byte[] awayGoals;
+    private double[] ks;
+
+    private final List<String> leagueNames = new ArrayList<>();
+    private final List<String> leagueChampions = new ArrayList<>();
+    private final List<Integer> leagueYears = new ArrayList<>();
+    private final List<Integer> firstMatches = new ArrayList<>();
+    private final List<Integer> leagueSizes = new ArrayList<>();
+
+    public InMemoryMatchStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param capacity How many matches fit before the columns have to grow.
+     */
+    public InMemoryMatchStore(int capacity) {
+        homeTeamIds = new int[capacity];
+        awayTeamIds = new int[capacity];
+        epochDays = new int[capacity];
+        homeGoals = new byte[capacity];
+        awayGoals = new byte[capacity];
+        ks = new double[capacity];
+    }
+
+    /**
+     * Adds a match after the last one.
+     *
+     * @return The position of the match.
+     */
+    public int addMatch(int homeTeamId, int awayTeamId, int epochDay, int homeGoals, int awayGoals, double k) {
+        if (homeGoals < 0 || homeGoals > 255 || awayGoals < 0 || awayGoals > 255) {
+            throw new IllegalArgumentException("Goals must be between 0 and 255.");
+        }
+
+        ensureCapacity(numberOfMatches + 1);
+        homeTeamIds[numberOfMatches] = homeTeamId;
+        awayTeamIds[numberOfMatches] = awayTeamId;
+        epochDays[numberOfMatches] = epochDay;
+        this.homeGoals[numberOfMatches] = (byte) homeGoals;
+        this.awayGoals[numberOfMatches] = (byte) awayGoals;
+        ks[numberOfMatches] = k;
+
+        return numberOfMatches++;
+    }
+
+    /**
+     * Adds a league, made of the matches in positions [firstMatch, firstMatch + size).
+     */
+    public void addLeague(String name, String champion, int year, int firstMatch, int size) {
+        leagueNames.add(name);
+        leagueChampions.add(champion);
+        leagueYears.add(year);
+        firstMatches.add(firstMatch);
+        leagueSizes.add(size);
+    }
+
+    /**
+     * Adds all matches and leagues of another store after the ones in this store.
+     */
+    public void append(InMemoryMatchStore other) {
+        final int offset = numberOfMatches;
+        ensureCapacity(numberOfMatches + other.numberOfMatches);
+
+        System.arraycopy(other.homeTeamIds, 0, homeTeamIds, offset, other.numberOfMatches);
+        System.arraycopy(other.awayTeamIds, 0, awayTeamIds, offset, other.numberOfMatches);
+        System.arraycopy(other.epochDays, 0, epochDays, offset, other.numberOfMatches);
+        System.arraycopy(other.homeGoals, 0, homeGoals, offset, other.numberOfMatches);
+        System.arraycopy(other.awayGoals, 0, awayGoals, offset, other.numberOfMatches);
+        System.arraycopy(other.ks, 0, ks, offset, other.numberOfMatches);
+        numberOfMatches += other.numberOfMatches;
+
+        for (int league = 0; league < other.getNumberOfLeagues(); league++) {
+            addLeague(other.getLeagueName(league), other.getLeagueChampion(league), other.getLeagueYear(league),
+                    other.getFirstMatch(league) + offset, other.getLeagueSize(league));
+        }
+    }
+
+    /**
+     * Releases the spare capacity, once no more matches will be added.
+     */
+    public void trimToSize() {
+        if (homeTeamIds.length == numberOfMatches) {
+            return;
+        }
+
+        homeTeamIds = Arrays.copyOf(homeTeamIds, numberOfMatches);
+        awayTeamIds = Arrays.copyOf(awayTeamIds, numberOfMatches);
+        epochDays = Arrays.copyOf(epochDays, numberOfMatches);
+        homeGoals = Arrays.copyOf(homeGoals, numberOfMatches);
+        awayGoals = Arrays.copyOf(awayGoals, numberOfMatches);
+        ks = Arrays.copyOf(ks, numberOfMatches);
+    }
+
+    @Override
+    public int getNumberOfMatches() {
+        return numberOfMatches;
+    }
+
+    @Override
+    public int getHomeTeamId(int match) {
+        return homeTeamIds[match];
+    }
+
+    @Override
+    public int getAwayTeamId(int match) {
+        return awayTeamIds[match];
+    }
+
+    @Override
+    public int getEpochDay(int match) {
+        return epochDays[match];
+    }
+
+    @Override
+    public int getHomeGoals(int match) {
+        return homeGoals[match] & 0xFF;
+    }
+
+    @Override
+    public int getAwayGoals(int match) {
+        return awayGoals[match] & 0xFF;
+    }
+
+    @Override
+    public double getK(int match) {
+        return ks[match];
+    }
+
+    @Override
+    public int getNumberOfLeagues() {
+        return leagueNames.size();
+    }
+
+    @Override
+    public String getLeagueName(int league) {
+        return leagueNames.get(league);
+    }
+
+    @Override
+    public String getLeagueChampion(int league) {
+        return leagueChampions.get(league);
+    }
+
+    @Override
+    public int getLeagueYear(int league) {
+        return leagueYears.get(league);
+    }
+
+    @Override
+    public int getFirstMatch(int league) {
+        return firstMatches.get(league);
+    }
+
+    @Override
+    public int getLeagueSize(int league) {
+        return leagueSizes.get(league);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= homeTeamIds.length) {
+            return;
+        }
+
+        final int newCapacity = Math.max(capacity, homeTeamIds.length * 2);
+        homeTeamIds = Arrays.copyOf(homeTeamIds, newCapacity);
+        awayTeamIds = Arrays.copyOf(awayTeamIds, newCapacity);
+        epochDays = Arrays.copyOf(epochDays, newCapacity);
+        homeGoals = Arrays.copyOf(homeGoals, newCapacity);
+        awayGoals = Arrays.copyOf(awayGoals, newCapacity);
+        ks = Arrays.copyOf(ks, newCapacity);
+    }
+}
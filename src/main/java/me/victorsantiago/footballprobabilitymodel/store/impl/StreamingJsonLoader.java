@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.store.impl;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import lombok.Getter;
+
+import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.model.TeamRegistry;
+import me.victorsantiago.footballprobabilitymodel.store.IngestionStats;
+import me.victorsantiago.footballprobabilitymodel.util.SerializerUtil;
+
+/**
+ * Loads JSON league files, in the same format {@link SerializerUtil#getLeagues(String)} reads,
+ * straight into an {@link InMemoryMatchStore}.
+ *
+ * Files are parsed in parallel, each one token by token into its own store, so neither the text
+ * nor League and Match objects are ever held in memory. The stores are then appended in the order of the files,
+ * into a store sized to fit them all.
+ */
+public class StreamingJsonLoader {
+
+    @Getter
+    private volatile IngestionStats lastStats;
+
+    /**
+     * @param paths League files to load.
+     * @return The leagues and matches of every file, in the order of the files.
+     */
+    public InMemoryMatchStore load(String... paths) throws IOException {
+        final long start = System.nanoTime();
+        final List<InMemoryMatchStore> stores;
+
+        try {
+            stores = Arrays.stream(paths)
+                           .parallel()
+                           .map(path -> {
+                               try {
+                                   return load(Paths.get(path));
+                               } catch (IOException e) {
+                                   throw new UncheckedIOException(e);
+                               }
+                           })
+                           .collect(Collectors.toCollection(ArrayList::new));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        // Sized to fit every match, and each file's store is dropped once appended, so the columns are only copied once
+        InMemoryMatchStore store = new InMemoryMatchStore(stores.stream()
+                                                                .mapToInt(InMemoryMatchStore::getNumberOfMatches)
+                                                                .sum());
+        for (int file = 0; file < stores.size(); file++) {
+            store.append(stores.set(file, null));
+        }
+        store.trimToSize();
+
+        long bytes = 0;
+        for (String path : paths) {
+            bytes += Files.size(Paths.get(path));
+        }
+
+        lastStats = new IngestionStats(paths.length, bytes, store.getNumberOfMatches(), System.nanoTime() - start);
+        return store;
+    }
+
+    private InMemoryMatchStore load(Path path) throws IOException {
+        final InMemoryMatchStore store = new InMemoryMatchStore();
+        final DateParser dateParser = new DateParser();
+
+        try (BufferedReader file = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+             JsonReader reader = new JsonReader(file)) {
+            reader.beginArray();
+
+            while (reader.hasNext()) {
+                readLeague(reader, store, dateParser);
+            }
+
+            reader.endArray();
+        }
+
+        return store;
+    }
+
+    private void readLeague(JsonReader reader, InMemoryMatchStore store, DateParser dateParser) throws IOException {
+        final int firstMatch = store.getNumberOfMatches();
+        String name = null;
+        String champion = null;
+        int year = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "name":
+                    name = nextString(reader);
+                    break;
+
+                case "champion":
+                    champion = nextString(reader);
+                    break;
+
+                case "year":
+                    year = reader.nextInt();
+                    break;
+
+                case "matches":
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        readMatch(reader, store, dateParser);
+                    }
+                    reader.endArray();
+                    break;
+
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        store.addLeague(name, champion, year, firstMatch, store.getNumberOfMatches() - firstMatch);
+    }
+
+    private void readMatch(JsonReader reader, InMemoryMatchStore store, DateParser dateParser) throws IOException {
+        final TeamRegistry registry = TeamRegistry.getInstance();
+        int home = -1;
+        int away = -1;
+        int homeGoals = 0;
+        int awayGoals = 0;
+        int epochDay = Integer.MIN_VALUE;
+        double k = 0.0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "home":
+                    home = registry.getId(reader.nextString());
+                    break;
+
+                case "away":
+                    away = registry.getId(reader.nextString());
+                    break;
+
+                case "homeGoals":
+                    homeGoals = reader.nextInt();
+                    break;
+
+                case "awayGoals":
+                    awayGoals = reader.nextInt();
+                    break;
+
+                case "date":
+                    epochDay = dateParser.getEpochDay(reader.nextString());
+                    break;
+
+                case "k":
+                    k = reader.nextDouble();
+                    break;
+
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (home == -1 || away == -1) {
+            throw new IOException("Match without teams at " + reader.getPath());
+        }
+
+        // A missing K means the default one, as in Match.
+        store.addMatch(home, away, epochDay, homeGoals, awayGoals, k == 0 ? Match.DEFAULT_K : k);
+    }
+
+    private String nextString(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+
+        return reader.nextString();
+    }
+
+    /**
+     * Parses dates the same way Gson does in {@link SerializerUtil}: in the local format first, then in the US one.
+     * Each file has its own parser, since the formats aren't thread-safe.
+     */
+    private static class DateParser {
+        private final SimpleDateFormat localFormat = new SimpleDateFormat(SerializerUtil.DATE_FORMAT);
+        private final SimpleDateFormat usFormat = new SimpleDateFormat(SerializerUtil.DATE_FORMAT, Locale.US);
+
+        private int getEpochDay(String date) throws IOException {
+            try {
+                return Match.getEpochDay(localFormat.parse(date));
+            } catch (ParseException e) {
+                try {
+                    return Match.getEpochDay(usFormat.parse(date));
+                } catch (ParseException usException) {
+                    throw new IOException("Invalid date: " + date, usException);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.telemetry;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of recorded values over fixed buckets, each one 4 times as large as the one before.
+ * Values are longs, such as durations in nanoseconds.
+ */
+public class Histogram {
+
+    private static final int NUMBER_OF_BUCKETS = 16;
+    private static final int BUCKET_GROWTH_BITS = 2;
+
+    private final Telemetry telemetry;
+    private final long[] upperBounds = new long[NUMBER_OF_BUCKETS];
+    private final LongAdder[] buckets = new LongAdder[NUMBER_OF_BUCKETS + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * @param firstBound Upper bound of the first bucket. The last bucket has no upper bound.
+     */
+    Histogram(Telemetry telemetry, long firstBound) {
+        this.telemetry = telemetry;
+
+        for (int bucket = 0; bucket < NUMBER_OF_BUCKETS; bucket++) {
+            upperBounds[bucket] = firstBound << (bucket * BUCKET_GROWTH_BITS);
+        }
+
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            buckets[bucket] = new LongAdder();
+        }
+    }
+
+    public void record(long value) {
+        if (telemetry.isEnabled()) {
+            buckets[getBucket(value)].increment();
+            count.increment();
+            sum.add(value);
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public int getNumberOfBuckets() {
+        return buckets.length;
+    }
+
+    /**
+     * @return The upper bound of a bucket, inclusive, or {@link Long#MAX_VALUE} for the last one.
+     */
+    public long getUpperBound(int bucket) {
+        return bucket < upperBounds.length ? upperBounds[bucket] : Long.MAX_VALUE;
+    }
+
+    /**
+     * @return How many values fell in a single bucket.
+     */
+    public long getBucketCount(int bucket) {
+        return buckets[bucket].sum();
+    }
+
+    private int getBucket(long value) {
+        int bucket = 0;
+
+        while (bucket < upperBounds.length && value > upperBounds[bucket]) {
+            bucket++;
+        }
+
+        return bucket;
+    }
+}
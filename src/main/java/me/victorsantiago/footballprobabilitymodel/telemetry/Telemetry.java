@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.telemetry;
+
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+
+/**
+ * Registry of counters, timers, histograms and gauges, built on {@link java.util.concurrent.atomic.LongAdder}
+ * so threads recording at the same time don't contend.
+ *
+ * It's disabled by default, in which case recording doesn't even read the clock.
+ * Enable it with {@link #setEnabled(boolean)} or the {@value #ENABLED_PROPERTY} system property.
+ * Everything recorded can be exported in the Prometheus text format or as a JSON snapshot.
+ */
+public class Telemetry {
+
+    public static final String ENABLED_PROPERTY = "footballprobabilitymodel.telemetry";
+
+    private static final Telemetry INSTANCE = new Telemetry(Boolean.getBoolean(ENABLED_PROPERTY));
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private enum Type {
+        COUNTER, TIMER, HISTOGRAM, GAUGE
+    }
+
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+    private volatile boolean enabled;
+
+    public Telemetry(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return The registry the calculators, simulations and metrics record to.
+     */
+    public static Telemetry getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @param name Metric name, in the Prometheus format.
+     * @param help What is being counted.
+     * @param labels Label names and values, one after the other.
+     * @return The counter with the given name and labels, created on its first use.
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) getSeries(name, help, Type.COUNTER, labels, key -> new Counter(this));
+    }
+
+    /**
+     * Same as {@link #counter(String, String, String...)}, for a timer. Durations are exported in seconds.
+     */
+    public Timer timer(String name, String help, String... labels) {
+        return (Timer) getSeries(name, help, Type.TIMER, labels, key -> new Timer(this));
+    }
+
+    /**
+     * Same as {@link #counter(String, String, String...)}, for a histogram.
+     *
+     * @param firstBound Upper bound of the first bucket. Each of the next ones is 4 times as large.
+     */
+    public Histogram histogram(String name, String help, long firstBound, String... labels) {
+        return (Histogram) getSeries(name, help, Type.HISTOGRAM, labels, key -> new Histogram(this, firstBound));
+    }
+
+    /**
+     * Registers a value that is read on export, such as the size of a cache.
+     * Registering the same name and labels again replaces the previous one.
+     */
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        getFamily(name, help, Type.GAUGE).series.put(getLabels(labels), value);
+    }
+
+    /**
+     * @return Everything recorded so far, in the Prometheus text format.
+     */
+    public String toPrometheus() {
+        StringBuilder text = new StringBuilder();
+
+        families.forEach((name, family) -> {
+            text.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+            text.append("# TYPE ").append(name).append(' ').append(getPrometheusType(family.type)).append('\n');
+
+            family.series.forEach((labels, series) -> appendPrometheus(text, name, labels, family.type, series));
+        });
+
+        return text.toString();
+    }
+
+    public void writePrometheus(Path path) throws IOException {
+        Files.write(path, toPrometheus().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return Everything recorded so far, as JSON, with each series under its name and labels.
+     */
+    public String toJson() {
+        Map<String, Map<String, Object>> snapshot = new LinkedHashMap<>();
+
+        families.forEach((name, family) -> family.series.forEach((labels, series) -> {
+            final String key = labels.isEmpty() ? name : name + "{" + labels + "}";
+            snapshot.computeIfAbsent(family.type.name().toLowerCase() + "s", type -> new LinkedHashMap<>())
+                    .put(key, getSnapshot(family.type, series));
+        }));
+
+        return new GsonBuilder().setPrettyPrinting().create().toJson(snapshot);
+    }
+
+    public void writeJson(Path path) throws IOException {
+        Files.write(path, toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Object getSeries(String name, String help, Type type, String[] labels, Function<String, Object> factory) {
+        return getFamily(name, help, type).series.computeIfAbsent(getLabels(labels), factory);
+    }
+
+    private Family getFamily(String name, String help, Type type) {
+        Family family = families.computeIfAbsent(name, key -> new Family(help, type));
+
+        if (family.type != type) {
+            throw new IllegalArgumentException(name + " is already registered as a " + family.type);
+        }
+
+        return family;
+    }
+
+    private String getLabels(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must come in name and value pairs.");
+        }
+
+        StringBuilder text = new StringBuilder();
+        for (int label = 0; label < labels.length; label += 2) {
+            if (label > 0) {
+                text.append(',');
+            }
+
+            text.append(labels[label]).append("=\"")
+                .append(labels[label + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                .append('"');
+        }
+
+        return text.toString();
+    }
+
+    private String getPrometheusType(Type type) {
+        switch (type) {
+            case COUNTER:
+                return "counter";
+
+            case GAUGE:
+                return "gauge";
+
+            default:
+                return "histogram";
+        }
+    }
+
+    private void appendPrometheus(StringBuilder text, String name, String labels, Type type, Object series) {
+        switch (type) {
+            case COUNTER:
+                appendSample(text, name, labels, ((Counter) series).getCount());
+                break;
+
+            case GAUGE:
+                appendSample(text, name, labels, ((DoubleSupplier) series).getAsDouble());
+                break;
+
+            case TIMER:
+                appendHistogram(text, name, labels, ((Timer) series).getHistogram(), NANOS_PER_SECOND);
+                break;
+
+            default:
+                appendHistogram(text, name, labels, (Histogram) series, 1);
+        }
+    }
+
+    private void appendHistogram(StringBuilder text, String name, String labels, Histogram histogram, double unit) {
+        final String separator = labels.isEmpty() ? "" : ",";
+        long cumulativeCount = 0;
+
+        for (int bucket = 0; bucket < histogram.getNumberOfBuckets(); bucket++) {
+            cumulativeCount += histogram.getBucketCount(bucket);
+            final long upperBound = histogram.getUpperBound(bucket);
+            final String le = upperBound == Long.MAX_VALUE ? "+Inf" : String.valueOf(upperBound / unit);
+            appendSample(text, name + "_bucket", labels + separator + "le=\"" + le + "\"", cumulativeCount);
+        }
+
+        appendSample(text, name + "_sum", labels, histogram.getSum() / unit);
+        appendSample(text, name + "_count", labels, histogram.getCount());
+    }
+
+    private void appendSample(StringBuilder text, String name, String labels, Object value) {
+        text.append(name);
+
+        if (!labels.isEmpty()) {
+            text.append('{').append(labels).append('}');
+        }
+
+        text.append(' ').append(value).append('\n');
+    }
+
+    private Object getSnapshot(Type type, Object series) {
+        switch (type) {
+            case COUNTER:
+                return ((Counter) series).getCount();
+
+            case GAUGE:
+                return ((DoubleSupplier) series).getAsDouble();
+
+            case TIMER:
+                Timer timer = (Timer) series;
+                Map<String, Object> timerSnapshot = new LinkedHashMap<>();
+                timerSnapshot.put("count", timer.getCount());
+                timerSnapshot.put("totalSeconds", timer.getTotalNanos() / NANOS_PER_SECOND);
+                timerSnapshot.put("meanSeconds",
+                        timer.getCount() == 0 ? 0.0 : timer.getTotalNanos() / NANOS_PER_SECOND / timer.getCount());
+                return timerSnapshot;
+
+            default:
+                Histogram histogram = (Histogram) series;
+                Map<String, Object> histogramSnapshot = new LinkedHashMap<>();
+                histogramSnapshot.put("count", histogram.getCount());
+                histogramSnapshot.put("sum", histogram.getSum());
+                return histogramSnapshot;
+        }
+    }
+
+    private static class Family {
+        private final String help;
+        private final Type type;
+        private final Map<String, Object> series = new ConcurrentSkipListMap<>();
+
+        private Family(String help, Type type) {
+            this.help = help;
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.telemetry;
+
+/**
+ * Durations of a phase, kept in a {@link Histogram} of nanoseconds.
+ *
+ * <pre>
+ * final long start = timer.start();
+ * ...
+ * timer.stop(start);
+ * </pre>
+ *
+ * When telemetry is disabled, neither call reads the clock.
+ */
+public class Timer {
+
+    private static final long DISABLED = Long.MIN_VALUE;
+    private static final long FIRST_BUCKET_NANOS = 1_000;
+
+    private final Telemetry telemetry;
+    private final Histogram histogram;
+
+    Timer(Telemetry telemetry) {
+        this.telemetry = telemetry;
+        this.histogram = new Histogram(telemetry, FIRST_BUCKET_NANOS);
+    }
+
+    /**
+     * @return The start time, to be handed to {@link #stop(long)}.
+     */
+    public long start() {
+        return telemetry.isEnabled() ? System.nanoTime() : DISABLED;
+    }
+
+    /**
+     * Records the time since the given start.
+     *
+     * @return The elapsed nanoseconds, or 0 when telemetry was disabled on start.
+     */
+    public long stop(long start) {
+        if (start == DISABLED) {
+            return 0;
+        }
+
+        final long elapsed = System.nanoTime() - start;
+        histogram.record(elapsed);
+        return elapsed;
+    }
+
+    public long getCount() {
+        return histogram.getCount();
+    }
+
+    public long getTotalNanos() {
+        return histogram.getSum();
+    }
+
+    public Histogram getHistogram() {
+        return histogram;
+    }
+}
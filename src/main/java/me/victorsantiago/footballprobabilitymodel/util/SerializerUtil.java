@@ -43,9 +43,11 @@ import static java.util.stream.Collectors.toList;
 @UtilityClass
 public class SerializerUtil {
 
+    public final String DATE_FORMAT = "MMM dd, yyyy HH:mm:ss aa";
+
     private final Gson gson = new GsonBuilder()
             .setPrettyPrinting()
-            .setDateFormat("MMM dd, yyyy HH:mm:ss aa")
+            .setDateFormat(DATE_FORMAT)
             .create();
 
     /**
@@ -58,7 +60,20 @@ public class SerializerUtil {
     public List<League> getLeagues(String path) throws IOException {
         byte[] encoded = Files.readAllBytes(Paths.get(path));
         String json = new String(encoded, StandardCharsets.UTF_8);
-        return gson.fromJson(json, new TypeToken<ArrayList<League>>(){}.getType());
+        List<League> leagues = gson.fromJson(json, new TypeToken<ArrayList<League>>(){}.getType());
+        leagues.forEach(SerializerUtil::registerTeams);
+        return leagues;
+    }
+
+    /**
+     * Looks up the team ids of every match once, while loading,
+     * so the calculations don't have to go through the TeamRegistry.
+     */
+    private void registerTeams(League league) {
+        for (Match match : league.getMatches()) {
+            match.getHomeId();
+            match.getAwayId();
+        }
     }
 
     public List<League> getLeagues(String... paths) throws IOException {
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.calculator.impl;
+
+import me.victorsantiago.footballprobabilitymodel.calculator.Calculator;
+import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.model.MatchHistoryIndex;
+import me.victorsantiago.footballprobabilitymodel.model.MatchProbability;
+import me.victorsantiago.footballprobabilitymodel.telemetry.Telemetry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingCalculatorTest {
+
+    private Calculator calculator;
+    private CachingCalculator toTest;
+    private List<Match> pastMatches;
+    private Match match;
+
+    @Before
+    public void setup() {
+        calculator = mock(Calculator.class);
+        toTest = new CachingCalculator(calculator, 2);
+
+        match = Match.builder().home("A").away("B").build();
+
+        pastMatches = new ArrayList<>();
+        pastMatches.add(Match.builder().home("A").homeGoals(1).away("B").awayGoals(2).build());
+        pastMatches.add(Match.builder().home("B").homeGoals(0).away("C").awayGoals(0).build());
+        pastMatches.add(Match.builder().home("C").homeGoals(3).away("A").awayGoals(1).build());
+
+        MatchProbability probability = MatchProbability.builder().homeTeam("A").awayTeam("B").build();
+        when(calculator.getMatchProbability(any(Match.class), anyListOf(Match.class))).thenReturn(probability);
+        when(calculator.getMatchProbability(any(Match.class), any(MatchHistoryIndex.class), anyInt(), anyInt()))
+                .thenReturn(probability);
+        when(calculator.getConfiguration()).thenReturn("mock");
+    }
+
+    @Test
+    public void shouldOnlyCalculateOncePerHistory() {
+        toTest.getMatchProbability(match, pastMatches);
+        toTest.getMatchProbability(match, new ArrayList<>(pastMatches));
+
+        verify(calculator, times(1)).getMatchProbability(any(Match.class), anyListOf(Match.class));
+        Assert.assertEquals(1, toTest.getStats().hitCount());
+        Assert.assertEquals(1, toTest.getStats().missCount());
+    }
+
+    @Test
+    public void shouldCalculateAgainForDifferentHistory() {
+        toTest.getMatchProbability(match, pastMatches);
+        toTest.getMatchProbability(match, pastMatches.subList(0, 2));
+
+        verify(calculator, times(2)).getMatchProbability(any(Match.class), anyListOf(Match.class));
+    }
+
+    @Test
+    public void shouldShareEntriesBetweenEqualWindows() {
+        List<Match> otherMatches = new ArrayList<>(pastMatches.subList(1, 3));
+        otherMatches.add(0, Match.builder().home("D").homeGoals(5).away("E").awayGoals(5).build());
+
+        toTest.getMatchProbability(match, MatchHistoryIndex.of(pastMatches), 1, 3);
+        toTest.getMatchProbability(match, MatchHistoryIndex.of(otherMatches), 1, 3);
+        toTest.getMatchProbability(match, pastMatches.subList(1, 3));
+
+        verify(calculator, times(1)).getMatchProbability(any(Match.class), any(MatchHistoryIndex.class), anyInt(), anyInt());
+        verify(calculator, times(0)).getMatchProbability(any(Match.class), anyListOf(Match.class));
+        Assert.assertEquals(2, toTest.getStats().hitCount());
+    }
+
+    @Test
+    public void shouldCalculateOnlyTheMissesInASingleCall() {
+        Match other = Match.builder().home("B").away("C").build();
+        when(calculator.getMatchesProbabilities(anyListOf(Match.class), anyListOf(Match.class))).thenAnswer(
+                invocation -> ((List<?>) invocation.getArguments()[0]).stream()
+                        .map(future -> MatchProbability.builder().homeTeam(((Match) future).getHome()).build())
+                        .collect(Collectors.toList()));
+
+        toTest.getMatchProbability(match, pastMatches);
+        List<MatchProbability> probabilities = toTest.getMatchesProbabilities(Arrays.asList(other, match), pastMatches);
+
+        verify(calculator, times(1)).getMatchesProbabilities(eq(Arrays.asList(other)), anyListOf(Match.class));
+        Assert.assertEquals("B", probabilities.get(0).getHomeTeam());
+        Assert.assertEquals("A", probabilities.get(1).getHomeTeam());
+
+        toTest.getMatchesProbabilities(Arrays.asList(other, match), pastMatches);
+        verify(calculator, times(1)).getMatchesProbabilities(anyListOf(Match.class), anyListOf(Match.class));
+    }
+
+    @Test
+    public void shouldFingerprintTheFieldsOfEachMatch() {
+        List<Match> otherScore = new ArrayList<>(pastMatches);
+        otherScore.set(1, Match.builder().home("B").homeGoals(1).away("C").awayGoals(0).build());
+        List<Match> otherK = new ArrayList<>(pastMatches);
+        otherK.set(1, Match.builder().home("B").homeGoals(0).away("C").awayGoals(0).k(40).build());
+
+        long fingerprint = MatchHistoryIndex.getFingerprint(pastMatches);
+
+        Assert.assertNotEquals(fingerprint, MatchHistoryIndex.getFingerprint(otherScore));
+        Assert.assertNotEquals(fingerprint, MatchHistoryIndex.getFingerprint(otherK));
+        Assert.assertEquals(fingerprint, MatchHistoryIndex.of(pastMatches).getFingerprint(0, 3));
+    }
+
+    @Test
+    public void shouldOnlyExportGaugesOnceRegistered() {
+        Telemetry telemetry = new Telemetry(true);
+        CachingCalculator other = new CachingCalculator(calculator, 2);
+
+        toTest.getMatchProbability(match, pastMatches);
+        Assert.assertFalse(telemetry.toPrometheus().contains("fpm_cache_size"));
+
+        toTest.registerGauges(telemetry, "first");
+        other.registerGauges(telemetry, "second");
+        String text = telemetry.toPrometheus();
+
+        Assert.assertTrue(text.contains("fpm_cache_size{cache=\"first\"} 1"));
+        Assert.assertTrue(text.contains("fpm_cache_size{cache=\"second\"} 0"));
+    }
+
+    @Test
+    public void shouldEvictWhenFull() {
+        toTest.getMatchProbability(match, pastMatches);
+        toTest.getMatchProbability(match, pastMatches.subList(0, 1));
+        toTest.getMatchProbability(match, pastMatches.subList(0, 2));
+
+        Assert.assertEquals(2, toTest.size());
+        Assert.assertEquals(1, toTest.getStats().evictionCount());
+    }
+}
@@ -21,6 +21,11 @@
 
 package me.victorsantiago.footballprobabilitymodel.calculator.impl;
 
+import com.google.common.collect.Lists;
+
+import java.util.Date;
+import java.util.List;
+
 import me.victorsantiago.footballprobabilitymodel.model.Match;
 import org.junit.Assert;
 import org.junit.Before;
@@ -78,4 +83,39 @@ public class EloCalculatorTest {
         Assert.assertEquals(1.5, toTest.getGoalDifferenceIndex(homeLoss), DELTA);
         Assert.assertEquals(2.125, toTest.getGoalDifferenceIndex(homeWin), DELTA);
     }
+
+    @Test
+    public void shouldApplyEachMatchOnce() {
+        List<Match> history = Lists.newArrayList(
+                getMatch("A", "B", 2, 0, 1),
+                getMatch("C", "D", 1, 1, 1),
+                getMatch("B", "C", 0, 3, 2));
+
+        toTest.getMatchesProbabilities(history, history);
+        final double ratingOfC = toTest.getRatings().get("C");
+
+        toTest.getMatchesProbabilities(history, history);
+        toTest.getMatchesProbabilities(history, history.subList(0, 2));
+        Assert.assertEquals(ratingOfC, toTest.getRatings().get("C"), DELTA);
+
+        history.add(getMatch("C", "A", 1, 0, 2));
+        history.add(getMatch("D", "A", 0, 0, 3));
+        toTest.getMatchesProbabilities(history, history);
+
+        EloCalculator fromScratch = new EloCalculator();
+        fromScratch.getMatchesProbabilities(history, history);
+
+        Assert.assertEquals(fromScratch.getRatings(), toTest.getRatings());
+    }
+
+    private Match getMatch(String home, String away, int homeGoals, int awayGoals, long day) {
+        return Match.builder()
+                    .home(home)
+                    .away(away)
+                    .homeGoals(homeGoals)
+                    .awayGoals(awayGoals)
+                    .date(new Date(day * 86_400_000L))
+                    .k(20)
+                    .build();
+    }
 }
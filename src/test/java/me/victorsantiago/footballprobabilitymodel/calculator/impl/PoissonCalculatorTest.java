@@ -22,6 +22,7 @@
 package me.victorsantiago.footballprobabilitymodel.calculator.impl;
 
 import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.model.MatchHistoryIndex;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -55,6 +56,25 @@ public class PoissonCalculatorTest {
         Assert.assertEquals(0.325, toTest.getPoissonProbability(0, expectedNumberOfGoals), DELTA);
     }
 
+    @Test
+    public void shouldNotOverflowWithHighGoalLimits() {
+        final double[] probabilities = toTest.getPoissonProbabilities(2.5, 30);
+
+        Assert.assertEquals(0.082, probabilities[0], DELTA);
+        Assert.assertEquals(0.257, probabilities[2], DELTA);
+        Assert.assertEquals(1.964e-6, probabilities[13], 1e-9);
+
+        for (double probability : probabilities) {
+            Assert.assertTrue(probability >= 0.0 && probability <= 1.0);
+        }
+    }
+
+    @Test
+    public void shouldReturnCorrectPoissonProbabilityForLargeExpectedGoals() {
+        Assert.assertEquals(0.0, toTest.getPoissonProbabilities(800.0, 20)[20], DELTA);
+        Assert.assertEquals(0.0141, toTest.getPoissonProbabilities(800.0, 800)[800], DELTA);
+    }
+
     @Test
     public void shouldReturnCorrectExpectedGoals() {
         double aAttackStrength = 1 / ((1+1+1+1+3) / 6.0);
@@ -97,6 +117,19 @@ public class PoissonCalculatorTest {
         Assert.assertEquals(correctAwayAverage, toTest.getAverageGoalsConcealedAtHome(sampleMatches), DELTA);
     }
 
+    @Test
+    public void shouldReturnSameProbabilitiesFromIndexedHistory() {
+        Match match = Match.builder().home("A").away("B").build();
+        MatchHistoryIndex history = MatchHistoryIndex.of(sampleMatches);
+
+        double[][] expected = toTest.getMatchProbability(match, sampleMatches.subList(1, 5)).getScoreProbability();
+        double[][] result = toTest.getMatchProbability(match, history, 1, 5).getScoreProbability();
+
+        for (int homeGoal = 0; homeGoal < expected.length; homeGoal++) {
+            Assert.assertArrayEquals(expected[homeGoal], result[homeGoal], DELTA);
+        }
+    }
+
     private List<Match> getSampleMatches() {
         sampleMatches = new ArrayList<>();
 
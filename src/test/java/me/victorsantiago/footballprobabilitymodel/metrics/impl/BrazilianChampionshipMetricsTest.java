@@ -21,9 +21,15 @@
 
 package me.victorsantiago.footballprobabilitymodel.metrics.impl;
 
+import me.victorsantiago.footballprobabilitymodel.calculator.impl.PoissonCalculator;
+import me.victorsantiago.footballprobabilitymodel.metrics.MetricsOptions;
+import me.victorsantiago.footballprobabilitymodel.metrics.ProgressListener;
+import me.victorsantiago.footballprobabilitymodel.model.League;
+import me.victorsantiago.footballprobabilitymodel.model.LeagueMetrics;
 import me.victorsantiago.footballprobabilitymodel.model.Match;
 import me.victorsantiago.footballprobabilitymodel.model.SimulatedMatch;
 import me.victorsantiago.footballprobabilitymodel.model.Standing;
+import me.victorsantiago.footballprobabilitymodel.model.Team;
 import me.victorsantiago.footballprobabilitymodel.simulation.Simulation;
 import me.victorsantiago.footballprobabilitymodel.util.SerializerUtil;
 import org.junit.Assert;
@@ -34,12 +40,23 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @RunWith(MockitoJUnitRunner.class)
 public class BrazilianChampionshipMetricsTest {
 
+    private static final double DELTA = 0.000001;
+
     @Mock
     private Simulation calculator;
 
@@ -59,6 +76,252 @@ public class BrazilianChampionshipMetricsTest {
         Assert.assertEquals(28, standings.get(19).getPoints());
     }
 
+    @Test
+    public void shouldGenerateMetricsFromStreamedSeasons() throws Exception {
+        final int simulations = 300;
+        List<League> leagues = SerializerUtil.getLeagues("src/test/resources/sample.json");
+        List<Match> allMatches = SerializerUtil.getMatchesFromLeaguesFiles("src/test/resources/sample.json");
+        MetricsOptions options = MetricsOptions.builder().mode(MetricsOptions.Mode.STREAMING).build();
+
+        BrazilianChampionshipMetrics metrics = new BrazilianChampionshipMetrics(new Simulation(new PoissonCalculator()));
+        LeagueMetrics result = metrics.generate(allMatches, 380, leagues.get(0), simulations, options);
+
+        Assert.assertEquals(simulations, result.getNumberOfSimulations());
+        Assert.assertEquals(1.0, getSum(result.getChampion()), DELTA);
+        Assert.assertEquals(5.0, getSum(result.getHighRanking()), DELTA);
+        Assert.assertEquals(6.0, getSum(result.getLowRanking()), DELTA);
+    }
+
+    @Test
+    public void shouldGenerateSameMetricsForSameSeed() throws Exception {
+        List<League> leagues = SerializerUtil.getLeagues("src/test/resources/sample.json");
+        List<Match> allMatches = SerializerUtil.getMatchesFromLeaguesFiles("src/test/resources/sample.json");
+        BrazilianChampionshipMetrics metrics = new BrazilianChampionshipMetrics(new Simulation(new PoissonCalculator()));
+
+        for (MetricsOptions.Mode mode : MetricsOptions.Mode.values()) {
+            MetricsOptions options = MetricsOptions.builder().mode(mode).seed(42L).build();
+
+            LeagueMetrics first = metrics.generate(allMatches, 380, leagues.get(0), 600, options);
+            LeagueMetrics second = metrics.generate(allMatches, 380, leagues.get(0), 600, options);
+
+            Assert.assertEquals(first, second);
+        }
+    }
+
+    @Test
+    public void shouldRunExactlyTheRequestedSimulationsInBatches() throws Exception {
+        List<League> leagues = SerializerUtil.getLeagues("src/test/resources/sample.json");
+        List<Match> allMatches = SerializerUtil.getMatchesFromLeaguesFiles("src/test/resources/sample.json");
+        BrazilianChampionshipMetrics metrics = new BrazilianChampionshipMetrics(new Simulation(new PoissonCalculator()));
+
+        MetricsOptions sequential = MetricsOptions.builder().seed(42L).batchSize(7).parallelism(1).build();
+        MetricsOptions parallel = MetricsOptions.builder().seed(42L).batchSize(7).parallelism(4).build();
+
+        LeagueMetrics first = metrics.generate(allMatches, 380, leagues.get(0), 250, sequential);
+        LeagueMetrics second = metrics.generate(allMatches, 380, leagues.get(0), 250, parallel);
+
+        Assert.assertEquals(250, first.getNumberOfSimulations());
+        Assert.assertEquals(1.0, getSum(first.getChampion()), DELTA);
+        Assert.assertEquals(first, second);
+    }
+
+    @Test
+    public void shouldScheduleLeagueBatchesIndependentlyOfThePool() throws Exception {
+        List<League> leagues = SerializerUtil.getLeagues("src/test/resources/sample.json");
+        List<Match> allMatches = SerializerUtil.getMatchesFromLeaguesFiles("src/test/resources/sample.json");
+        BrazilianChampionshipMetrics metrics = new BrazilianChampionshipMetrics(new Simulation(new PoissonCalculator()));
+
+        for (MetricsOptions.Mode mode : MetricsOptions.Mode.values()) {
+            MetricsOptions sequential = MetricsOptions.builder().mode(mode).seed(7L).batchSize(30).parallelism(1).build();
+            MetricsOptions parallel = MetricsOptions.builder().mode(mode).seed(7L).batchSize(30).parallelism(3).build();
+
+            Map<League, LeagueMetrics> all = metrics.generate(allMatches, 380, leagues.subList(0, 1), 100, parallel);
+            LeagueMetrics single = metrics.generate(allMatches, 380, leagues.get(0), 100, sequential);
+
+            Assert.assertEquals(1, all.size());
+            Assert.assertEquals(100, all.get(leagues.get(0)).getNumberOfSimulations());
+            Assert.assertEquals(single, all.get(leagues.get(0)));
+        }
+    }
+
+    @Test
+    public void shouldKeepResultsPlayedBeforeCutoff() throws Exception {
+        List<League> leagues = SerializerUtil.getLeagues("src/test/resources/sample.json");
+        List<Match> allMatches = SerializerUtil.getMatchesFromLeaguesFiles("src/test/resources/sample.json");
+        List<Match> leagueMatches = leagues.get(0).getMatches();
+        BrazilianChampionshipMetrics metrics = new BrazilianChampionshipMetrics(new Simulation(new PoissonCalculator()));
+        Date afterLastMatch = new Date(leagueMatches.stream().mapToLong(match -> match.getDate().getTime()).max()
+                                                    .getAsLong() + 1);
+
+        for (MetricsOptions.Mode mode : MetricsOptions.Mode.values()) {
+            MetricsOptions options = MetricsOptions.builder().mode(mode).seed(42L).cutoff(afterLastMatch).build();
+            LeagueMetrics result = metrics.generate(allMatches, 380, leagues.get(0), 50, options);
+
+            Assert.assertEquals(50, result.getNumberOfSimulations());
+            Assert.assertEquals(1.0, result.getChampion().get(new Team("Palmeiras")), DELTA);
+            Assert.assertEquals(1.0, result.getLowRanking().get(new Team("América-MG")), DELTA);
+        }
+
+        MetricsOptions midSeason = MetricsOptions.builder().seed(42L)
+                                                 .cutoff(leagueMatches.get(leagueMatches.size() / 2).getDate()).build();
+        LeagueMetrics result = metrics.generate(allMatches, 380, leagues.get(0), 200, midSeason);
+
+        Assert.assertEquals(200, result.getNumberOfSimulations());
+        Assert.assertEquals(1.0, getSum(result.getChampion()), DELTA);
+    }
+
+    @Test
+    public void shouldRejectLeaguesWithoutPriorHistory() throws Exception {
+        List<League> leagues = SerializerUtil.getLeagues("src/test/resources/sample.json");
+        List<Match> allMatches = SerializerUtil.getMatchesFromLeaguesFiles("src/test/resources/sample.json");
+        BrazilianChampionshipMetrics metrics = new BrazilianChampionshipMetrics(new Simulation(new PoissonCalculator()));
+
+        // The 2015 league is the earliest one in the sample, so there are no matches to calculate its probabilities from.
+        League earliest = leagues.get(1);
+        Date start = Collections.min(earliest.getMatches()).getDate();
+        Assert.assertTrue(allMatches.stream().noneMatch(match -> match.getDate().before(start)));
+
+        for (MetricsOptions.Mode mode : MetricsOptions.Mode.values()) {
+            MetricsOptions options = MetricsOptions.builder().mode(mode).seed(1L).build();
+
+            try {
+                metrics.generate(allMatches, 380, earliest, 200, options);
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains(earliest.getName()));
+            }
+
+            try {
+                metrics.generate(allMatches, 380, leagues, 200, options);
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+                Assert.assertTrue(e.getMessage().contains(earliest.getName()));
+            }
+        }
+    }
+
+    @Test
+    public void shouldSimulateUntilTargetStandardError() throws Exception {
+        List<League> leagues = SerializerUtil.getLeagues("src/test/resources/sample.json");
+        List<Match> allMatches = SerializerUtil.getMatchesFromLeaguesFiles("src/test/resources/sample.json");
+        BrazilianChampionshipMetrics metrics = new BrazilianChampionshipMetrics(new Simulation(new PoissonCalculator()));
+
+        MetricsOptions options = MetricsOptions.builder().seed(42L).targetStandardError(0.02).build();
+        LeagueMetrics result = metrics.generate(allMatches, 380, leagues.get(0), 100, options);
+
+        Assert.assertTrue(result.getStandardError() <= 0.02);
+        Assert.assertTrue(result.getNumberOfSimulations() > 100);
+        Assert.assertEquals(0, result.getNumberOfSimulations() % 100);
+        Assert.assertEquals(1.0, getSum(result.getChampion()), DELTA);
+
+        MetricsOptions limited = MetricsOptions.builder().seed(42L).targetStandardError(0.0001).maxSimulations(250).build();
+        LeagueMetrics limitedResult = metrics.generate(allMatches, 380, leagues.get(0), 100, limited);
+
+        Assert.assertEquals(250, limitedResult.getNumberOfSimulations());
+        Assert.assertTrue(limitedResult.getStandardError() > 0.0001);
+    }
+
+    @Test
+    public void shouldRejectInvalidOptionsSynchronouslyAndAsynchronously() throws Exception {
+        List<League> leagues = SerializerUtil.getLeagues("src/test/resources/sample.json");
+        List<Match> allMatches = SerializerUtil.getMatchesFromLeaguesFiles("src/test/resources/sample.json");
+        BrazilianChampionshipMetrics metrics = new BrazilianChampionshipMetrics(new Simulation(new PoissonCalculator()));
+
+        List<MetricsOptions> invalidOptions = new ArrayList<>();
+        invalidOptions.add(MetricsOptions.builder().batchSize(0).build());
+        invalidOptions.add(MetricsOptions.builder().maxSimulations(0).build());
+        invalidOptions.add(MetricsOptions.builder().targetStandardError(0.02).maxSimulations(0).build());
+        invalidOptions.add(MetricsOptions.builder().targetStandardError(0.0).build());
+        invalidOptions.add(MetricsOptions.builder().targetStandardError(Double.NaN).build());
+
+        for (MetricsOptions options : invalidOptions) {
+            try {
+                metrics.generate(allMatches, 380, leagues.get(0), 100, options);
+                Assert.fail(options.toString());
+            } catch (IllegalArgumentException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("must be positive"));
+            }
+
+            try {
+                metrics.generateAsync(allMatches, 380, leagues.get(0), 100, options, Runnable::run,
+                        ProgressListener.NONE);
+                Assert.fail(options.toString());
+            } catch (IllegalArgumentException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("must be positive"));
+            }
+        }
+    }
+
+    @Test
+    public void shouldGenerateMetricsAsynchronously() throws Exception {
+        List<League> leagues = SerializerUtil.getLeagues("src/test/resources/sample.json");
+        List<Match> allMatches = SerializerUtil.getMatchesFromLeaguesFiles("src/test/resources/sample.json");
+        BrazilianChampionshipMetrics metrics = new BrazilianChampionshipMetrics(new Simulation(new PoissonCalculator()));
+        MetricsOptions options = MetricsOptions.builder().seed(42L).batchSize(64).build();
+        List<Long> progress = new CopyOnWriteArrayList<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            LeagueMetrics result = metrics.generateAsync(allMatches, 380, leagues.get(0), 300, options, executor,
+                    (league, completed, total) -> progress.add(completed)).get();
+            LeagueMetrics sequential = metrics.generateAsync(allMatches, 380, leagues.get(0), 300, options,
+                    Runnable::run, ProgressListener.NONE).get();
+
+            Assert.assertEquals(300, result.getNumberOfSimulations());
+            Assert.assertEquals(1.0, getSum(result.getChampion()), DELTA);
+            Assert.assertEquals(sequential, result);
+            Assert.assertEquals(5, progress.size());
+            Assert.assertEquals(300L, Collections.max(progress).longValue());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldGenerateSameMetricsAsynchronouslyInEveryMode() throws Exception {
+        List<League> leagues = SerializerUtil.getLeagues("src/test/resources/sample.json");
+        List<Match> allMatches = SerializerUtil.getMatchesFromLeaguesFiles("src/test/resources/sample.json");
+        BrazilianChampionshipMetrics metrics = new BrazilianChampionshipMetrics(new Simulation(new PoissonCalculator()));
+
+        for (MetricsOptions.Mode mode : MetricsOptions.Mode.values()) {
+            MetricsOptions options = MetricsOptions.builder().mode(mode).seed(42L).batchSize(40).build();
+
+            LeagueMetrics async = metrics.generateAsync(allMatches, 380, leagues.get(0), 100, options, Runnable::run,
+                    ProgressListener.NONE).get();
+
+            Assert.assertEquals(metrics.generate(allMatches, 380, leagues.get(0), 100, options), async);
+        }
+    }
+
+    @Test
+    public void shouldSkipBatchesOnceCancelled() throws Exception {
+        List<League> leagues = SerializerUtil.getLeagues("src/test/resources/sample.json");
+        List<Match> allMatches = SerializerUtil.getMatchesFromLeaguesFiles("src/test/resources/sample.json");
+        BrazilianChampionshipMetrics metrics = new BrazilianChampionshipMetrics(new Simulation(new PoissonCalculator()));
+        MetricsOptions options = MetricsOptions.builder().seed(42L).batchSize(10).build();
+        Deque<Runnable> tasks = new ArrayDeque<>();
+        List<Long> progress = new ArrayList<>();
+
+        CompletableFuture<LeagueMetrics> result = metrics.generateAsync(allMatches, 380, leagues.get(0), 100, options,
+                tasks::add, (league, completed, total) -> progress.add(completed));
+
+        tasks.poll().run();
+        Assert.assertEquals(10, tasks.size());
+
+        tasks.poll().run();
+        result.cancel(true);
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+
+        Assert.assertTrue(result.isCancelled());
+        Assert.assertEquals(Collections.singletonList(10L), progress);
+    }
+
+    private double getSum(Map<Team, Double> probabilities) {
+        return probabilities.values().stream().mapToDouble(Double::doubleValue).sum();
+    }
+
     private List<SimulatedMatch> convertMatches(List<Match> matches) {
         List<SimulatedMatch> response = new ArrayList<>();
 
@@ -70,7 +333,7 @@ public class BrazilianChampionshipMetricsTest {
     }
 
     private SimulatedMatch convertMatch(Match match) {
-        return new SimulatedMatch("", Instant.now(), match.getHome(),
+        return new SimulatedMatch("", 0, "", Instant.now(), match.getHome(),
                 match.getAway(), match.getHomeGoals(), match.getAwayGoals(), match.getDate());
     }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.model;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import me.victorsantiago.footballprobabilitymodel.calculator.impl.EloCalculator;
+import me.victorsantiago.footballprobabilitymodel.util.SerializerUtil;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EloRatingHistoryTest {
+
+    private static final double DELTA = 0.000001;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private List<Match> matches;
+
+    private EloRatingHistory toTest;
+
+    @Before
+    public void setup() throws Exception {
+        matches = SerializerUtil.getMatchesFromLeaguesFilesWithK(20, "src/test/resources/sample.json");
+        Collections.sort(matches);
+        toTest = new EloCalculator().getRatingHistory(matches);
+    }
+
+    @Test
+    public void shouldReturnSameRatingsAsReplayingUpToDate() {
+        for (int position : new int[] {0, 1, 137, 512, 700, matches.size() - 1}) {
+            final Date date = matches.get(position).getDate();
+            final int from = getFirstMatchOnDay(date);
+
+            EloCalculator calculator = new EloCalculator();
+            calculator.getMatchesProbabilities(Collections.emptyList(), matches.subList(0, from));
+            Map<String, Double> expected = calculator.getRatings();
+
+            Assert.assertEquals(expected, toTest.getRatingsByName(date));
+
+            for (Map.Entry<String, Double> rating : expected.entrySet()) {
+                final int team = TeamRegistry.getInstance().getId(rating.getKey());
+                Assert.assertEquals(rating.getValue(), toTest.getRating(team, date), DELTA);
+                Assert.assertEquals(rating.getValue(), toTest.getRatings(date)[team], DELTA);
+            }
+        }
+    }
+
+    @Test
+    public void shouldReturnInitialRatingBeforeFirstMatch() {
+        final Match first = matches.get(0);
+
+        Assert.assertTrue(toTest.getRatingsByName(first.getDate()).isEmpty());
+        Assert.assertEquals(1500, toTest.getRating(first.getHomeId(), first.getDate()), DELTA);
+    }
+
+    @Test
+    public void shouldLoadSavedHistory() throws Exception {
+        final File file = folder.newFile("ratings.bin");
+        final Date date = matches.get(600).getDate();
+
+        toTest.save(file.toPath());
+        EloRatingHistory loaded = EloRatingHistory.load(file.toPath());
+
+        Assert.assertEquals(toTest.getNumberOfMatches(), loaded.getNumberOfMatches());
+        Assert.assertEquals(toTest.getRatingsByName(date), loaded.getRatingsByName(date));
+    }
+
+    private int getFirstMatchOnDay(Date date) {
+        final int day = EloRatingHistory.getEpochDay(date);
+        int position = 0;
+
+        while (EloRatingHistory.getEpochDay(matches.get(position).getDate()) < day) {
+            position++;
+        }
+
+        return position;
+    }
+}
@@ -23,6 +23,7 @@ package me.victorsantiago.footballprobabilitymodel.model;
 
 import com.google.common.collect.Lists;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -81,4 +82,43 @@ public class LeagueMetricsTest {
         Assert.assertEquals(expectedMergedProbabilities, toTest.getHighRanking());
         Assert.assertEquals(expectedMergedProbabilities, toTest.getLowRanking());
     }
+
+    @Test
+    public void shouldReportLargestStandardError() {
+        PositionCounts counts = new PositionCounts(Arrays.asList(new Team("A"), new Team("B"), new Team("C"),
+                new Team("D"), new Team("E"), new Team("F"), new Team("G")));
+
+        for (int simulation = 0; simulation < 4; simulation++) {
+            counts.increment(new int[]{simulation % 2, 1 - simulation % 2, 2, 3, 4, 5, 6});
+        }
+
+        LeagueMetrics toTest = new LeagueMetrics("League A", counts);
+
+        Assert.assertEquals(4, toTest.getNumberOfSimulations());
+        Assert.assertEquals(Math.sqrt(0.5 * 0.5 / 4), toTest.getStandardError(), 0.000001);
+    }
+
+    @Test
+    public void shouldReturnZoneProbabilitiesFromDistribution() {
+        Team teamA = new Team("A");
+        Team teamB = new Team("B");
+        Team teamC = new Team("C");
+        PositionCounts counts = new PositionCounts(Arrays.asList(teamA, teamB, teamC));
+        counts.increment(new int[]{0, 1, 2});
+        counts.increment(new int[]{1, 0, 2});
+        counts.increment(new int[]{0, 2, 1});
+        counts.increment(new int[]{0, 1, 2});
+
+        LeagueMetrics toTest = new LeagueMetrics("League A", counts);
+
+        Assert.assertEquals(Arrays.asList(0.75, 1.0, 1.0), toTest.getCumulativeProbabilities().get(teamA));
+        Assert.assertEquals(toTest.getChampion(), toTest.getZoneProbabilities(0, 0));
+        Assert.assertEquals(0.5, toTest.getZoneProbabilities(1, 1).get(teamB), 0.000001);
+        Assert.assertEquals(0.75, toTest.getZoneProbabilities(2, 2).get(teamC), 0.000001);
+        Assert.assertEquals(1.0, toTest.getZoneProbabilities(1, 2).get(teamC), 0.000001);
+        Assert.assertEquals(0.25, toTest.getZoneProbabilities(1, 2).get(teamA), 0.000001);
+
+        LeagueMetrics merged = new LeagueMetrics(Lists.newArrayList(toTest, toTest));
+        Assert.assertEquals(toTest.getCumulativeProbabilities(), merged.getCumulativeProbabilities());
+    }
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.model;
+
+import me.victorsantiago.footballprobabilitymodel.util.SerializerUtil;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MatchHistoryIndexTest {
+
+    private static final double DELTA = 0.000001;
+
+    private List<Match> matches;
+    private MatchHistoryIndex toTest;
+
+    @Before
+    public void setup() throws Exception {
+        matches = SerializerUtil.getMatchesFromLeaguesFiles("src/test/resources/sample.json");
+        Collections.sort(matches);
+        toTest = MatchHistoryIndex.of(matches);
+    }
+
+    @Test
+    public void shouldReturnSameStatsAsTheWindow() {
+        final int from = 57;
+        final int to = 431;
+        final int team = TeamRegistry.getInstance().getId("Palmeiras");
+
+        TeamGoalStats expected = TeamGoalStats.of(matches.subList(from, to));
+        TeamGoalStats result = toTest.getStats(from, to, team);
+
+        Assert.assertEquals(expected.getNumberOfMatches(), result.getNumberOfMatches());
+        Assert.assertEquals(expected.getAverageGoalsScoredAtHome(), result.getAverageGoalsScoredAtHome(), DELTA);
+        Assert.assertEquals(expected.getAverageGoalsScoredAway(), result.getAverageGoalsScoredAway(), DELTA);
+        Assert.assertEquals(expected.getAverageGoalsScoredAtHome(team), result.getAverageGoalsScoredAtHome(team), DELTA);
+        Assert.assertEquals(expected.getAverageGoalsConcealedAtHome(team), result.getAverageGoalsConcealedAtHome(team), DELTA);
+        Assert.assertEquals(expected.getAverageGoalsScoredAway(team), result.getAverageGoalsScoredAway(team), DELTA);
+        Assert.assertEquals(expected.getAverageGoalsConcealedAway(team), result.getAverageGoalsConcealedAway(team), DELTA);
+    }
+
+    @Test
+    public void shouldFindFirstMatchOnOrAfterDate() {
+        final Match match = matches.get(400);
+        final int position = toTest.indexOf(match.getDate());
+
+        Assert.assertEquals(match.getDate(), toTest.getMatches(position, position + 1).get(0).getDate());
+        Assert.assertTrue(position == 0 || matches.get(position - 1).getDate().before(match.getDate()));
+    }
+
+    @Test
+    public void shouldLimitWindowBeforeDate() {
+        final Match match = matches.get(400);
+        final int position = toTest.indexOf(match.getDate());
+
+        Assert.assertEquals(100, toTest.getStatsBefore(match.getDate(), 100).getNumberOfMatches());
+        Assert.assertEquals(position, toTest.getStatsBefore(match.getDate(), -1).getNumberOfMatches());
+    }
+}
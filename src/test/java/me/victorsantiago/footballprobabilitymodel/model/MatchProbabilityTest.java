@@ -50,4 +50,10 @@ public class MatchProbabilityTest {
         Assert.assertEquals(0.20, toTest.getAwayWinProbability(), 0.001);
         Assert.assertEquals(1.0, toTest.getTotalSumOfProbabilities(), 0.001);
     }
+
+    @Test
+    public void shouldReuseSampler() {
+        Assert.assertSame(toTest.getSampler(), toTest.getSampler());
+        Assert.assertEquals(4, toTest.getSampler().getNumberOfScores());
+    }
 }
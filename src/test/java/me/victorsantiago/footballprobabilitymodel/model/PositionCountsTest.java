@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.model;
+
+import com.google.common.collect.Lists;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PositionCountsTest {
+
+    private final List<Team> teams = Lists.newArrayList(new Team("A"), new Team("B"), new Team("C"));
+
+    @Test
+    public void shouldCountPositions() {
+        PositionCounts toTest = new PositionCounts(teams);
+        toTest.increment(new int[] {2, 0, 1});
+        toTest.increment(new int[] {2, 1, 0});
+
+        Assert.assertEquals(2, toTest.getNumberOfSimulations());
+        Assert.assertEquals(2, toTest.getCount(2, 0));
+        Assert.assertEquals(1, toTest.getCount(0, 1));
+        Assert.assertEquals(1, toTest.getCount(0, 2));
+        Assert.assertEquals(0, toTest.getCount(2, 2));
+    }
+
+    @Test
+    public void shouldMergeCounts() {
+        PositionCounts one = new PositionCounts(teams);
+        one.increment(new int[] {0, 1, 2});
+
+        PositionCounts two = new PositionCounts(teams);
+        two.increment(new int[] {0, 2, 1});
+        two.increment(new int[] {1, 0, 2});
+
+        PositionCounts toTest = one.merge(two);
+
+        Assert.assertEquals(3, toTest.getNumberOfSimulations());
+        Assert.assertEquals(2, toTest.getCount(0, 0));
+        Assert.assertEquals(2, toTest.getCount(2, 2));
+    }
+
+    @Test
+    public void shouldSumCountsOfEveryPositionAbove() {
+        PositionCounts toTest = new PositionCounts(teams);
+        toTest.increment(new int[] {2, 0, 1});
+        toTest.increment(new int[] {0, 2, 1});
+
+        long[][] cumulativeCounts = toTest.getCumulativeCounts();
+
+        Assert.assertArrayEquals(new long[] {0, 1, 2, 2}, cumulativeCounts[0]);
+        Assert.assertArrayEquals(new long[] {0, 0, 0, 2}, cumulativeCounts[1]);
+        Assert.assertArrayEquals(new long[] {0, 1, 2, 2}, cumulativeCounts[2]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotMergeCountsOfDifferentTeams() {
+        new PositionCounts(teams).merge(new PositionCounts(teams.subList(0, 2)));
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScoreSamplerTest {
+
+    private static final int SAMPLES = 100000;
+    private static final double DELTA = 0.001;
+
+    @Test
+    public void shouldSampleScoresProportionallyToTheirProbabilities() {
+        final double[][] probabilities = new double[][] {
+                {0.1, 0.3, 0.0},
+                {0.2, 0.1, 0.05},
+                {0.05, 0.0, 0.2}
+        };
+        ScoreSampler toTest = new ScoreSampler(probabilities);
+        double[][] frequencies = new double[3][3];
+
+        for (int n = 0; n < SAMPLES; n++) {
+            int score = toTest.sample((n + 0.5) / SAMPLES);
+            frequencies[toTest.getHomeGoals(score)][toTest.getAwayGoals(score)] += 1.0 / SAMPLES;
+        }
+
+        for (int homeGoal = 0; homeGoal < probabilities.length; homeGoal++) {
+            Assert.assertArrayEquals(probabilities[homeGoal], frequencies[homeGoal], DELTA);
+        }
+    }
+
+    @Test
+    public void shouldNormalizeProbabilitiesThatDoNotAddUpToOne() {
+        ScoreSampler toTest = new ScoreSampler(new double[][] {{0.0, 0.2}, {0.0, 0.0}});
+
+        for (int n = 0; n < 10; n++) {
+            int score = toTest.sample(n / 10.0);
+            Assert.assertEquals(0, toTest.getHomeGoals(score));
+            Assert.assertEquals(1, toTest.getAwayGoals(score));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotBuildWithoutProbabilities() {
+        new ScoreSampler(new double[][] {{0.0, 0.0}, {0.0, 0.0}});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotBuildFromNaNProbabilities() {
+        new ScoreSampler(new double[][] {{Double.NaN, Double.NaN}, {Double.NaN, Double.NaN}});
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.model;
+
+import com.google.common.collect.Lists;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SimulationResultTest {
+
+    private SimulationResult toTest;
+    private List<Match> fixtures;
+
+    @Before
+    public void setup() {
+        fixtures = Lists.newArrayList(
+                Match.builder().home("A").away("B").date(new Date()).build(),
+                Match.builder().home("B").away("A").date(new Date()).build());
+
+        toTest = new SimulationResult("LEAGUE", fixtures, 3);
+        toTest.setScore(0, 2, 4, 1);
+        toTest.setScore(1, 2, 0, 3);
+    }
+
+    @Test
+    public void shouldStoreScoresByFixtureAndSimulation() {
+        Assert.assertEquals(4, toTest.getHomeGoals(0, 2));
+        Assert.assertEquals(1, toTest.getAwayGoals(0, 2));
+        Assert.assertEquals(0, toTest.getHomeGoals(0, 1));
+    }
+
+    @Test
+    public void shouldMaterialiseSimulatedMatches() {
+        SimulatedMatch simulatedMatch = toTest.getSimulatedMatch(1, 2);
+
+        Assert.assertEquals("LEAGUE", simulatedMatch.getLeagueName());
+        Assert.assertEquals("B", simulatedMatch.getHomeTeam());
+        Assert.assertEquals(3, simulatedMatch.getAwayGoals());
+        Assert.assertEquals(fixtures.get(1).getDate(), simulatedMatch.getMatchDate());
+        Assert.assertEquals(3, toTest.getSimulatedMatches(0).length);
+        Assert.assertEquals(2, toTest.getSimulatedSeason(2).size());
+    }
+
+    @Test
+    public void shouldKeySimulatedMatchesBySimulationAndFixture() {
+        SimulatedMatch simulatedMatch = toTest.getSimulatedMatch(1, 2);
+        SimulationResult other = new SimulationResult("LEAGUE", fixtures, 3);
+
+        Assert.assertEquals(SimulatedMatch.getSimulationId(toTest.getRunId(), 2), simulatedMatch.getSimulationId());
+        Assert.assertEquals(1, simulatedMatch.getFixture());
+        Assert.assertEquals(simulatedMatch.getSimulationId(), toTest.getSimulatedMatch(0, 2).getSimulationId());
+        Assert.assertNotEquals(simulatedMatch.getSimulationId(), toTest.getSimulatedMatch(1, 1).getSimulationId());
+        Assert.assertNotEquals(simulatedMatch.getSimulationId(), other.getSimulatedMatch(1, 2).getSimulationId());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotStoreScoresThatDoNotFit() {
+        toTest.setScore(0, 0, 128, 0);
+    }
+}
@@ -46,7 +46,7 @@ public class StandingTest {
 
     @Test
     public void shouldIncrementWithMatchCorrectly() {
-        SimulatedMatch simulatedMatch = new SimulatedMatch("LEAGUE", Instant.now(),
+        SimulatedMatch simulatedMatch = new SimulatedMatch("SIMULATION", 0, "LEAGUE", Instant.now(),
                 "São Paulo", "Corinthians", 2, 1, new Date());
 
         toTest.incrementWithMatch(simulatedMatch);
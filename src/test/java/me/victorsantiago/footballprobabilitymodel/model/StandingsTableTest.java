@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.model;
+
+import me.victorsantiago.footballprobabilitymodel.util.SerializerUtil;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StandingsTableTest {
+
+    private List<Match> fixtures;
+    private StandingsTable toTest;
+
+    @Before
+    public void setup() throws Exception {
+        fixtures = SerializerUtil.getLeagues("src/test/resources/sample.json").get(0).getMatches();
+        toTest = StandingsTable.of(fixtures);
+    }
+
+    @Test
+    public void shouldRankLikeSortedStandings() {
+        Random random = new Random(42);
+
+        for (int season = 0; season < 50; season++) {
+            List<SimulatedMatch> simulatedMatches = new ArrayList<>();
+            toTest.reset();
+
+            for (int fixture = 0; fixture < fixtures.size(); fixture++) {
+                // Few goals, so there are plenty of ties to break.
+                int homeGoals = random.nextInt(2);
+                int awayGoals = random.nextInt(2);
+
+                toTest.addResult(fixture, homeGoals, awayGoals);
+                simulatedMatches.add(new SimulatedMatch("", fixture, "", Instant.now(),
+                        fixtures.get(fixture).getHome(), fixtures.get(fixture).getAway(), homeGoals, awayGoals, null));
+            }
+
+            List<String> expected = getSortedStandings(simulatedMatches);
+            int[] ranking = toTest.rank();
+
+            for (int position = 0; position < ranking.length; position++) {
+                Assert.assertEquals(expected.get(position), toTest.getTeam(ranking[position]).getName());
+            }
+        }
+    }
+
+    @Test
+    public void shouldKeepStandingsSeparateInCopies() {
+        StandingsTable copy = toTest.copy();
+        toTest.addResult(0, 3, 0);
+
+        int home = toTest.getHomeIndex(0);
+        Assert.assertEquals(3, toTest.getPoints(home));
+        Assert.assertEquals(0, copy.getPoints(home));
+        Assert.assertEquals(fixtures.get(0).getHome(), copy.getTeam(home).getName());
+    }
+
+    @Test
+    public void shouldResetToBaseline() {
+        toTest.addResult(0, 3, 0);
+        toTest.setBaseline();
+        toTest.addResult(1, 1, 1);
+        StandingsTable copy = toTest.copy();
+
+        int home = toTest.getHomeIndex(0);
+        Assert.assertEquals(3, copy.getPoints(home));
+
+        toTest.reset();
+        Assert.assertEquals(3, toTest.getPoints(home));
+        Assert.assertEquals(0, toTest.getPoints(toTest.getHomeIndex(1)));
+        Assert.assertEquals(3, toTest.getGoalDifference(home));
+    }
+
+    @Test
+    public void shouldReturnStanding() {
+        toTest.addResult(0, 2, 1);
+
+        Standing standing = toTest.getStanding(toTest.getTeamIndex(fixtures.get(0).getAway()));
+        Assert.assertEquals(1, standing.getLosses());
+        Assert.assertEquals(-1, standing.getGoalDifference());
+    }
+
+    private List<String> getSortedStandings(List<SimulatedMatch> matches) {
+        Map<Team, Standing> teamStanding = new HashMap<>();
+
+        for (SimulatedMatch match : matches) {
+            teamStanding.computeIfPresent(new Team(match.getHomeTeam()), (k, v) -> v.incrementWithMatch(match));
+            teamStanding.computeIfAbsent(new Team(match.getHomeTeam()), k -> new Standing(k, match));
+            teamStanding.computeIfPresent(new Team(match.getAwayTeam()), (k, v) -> v.incrementWithMatch(match));
+            teamStanding.computeIfAbsent(new Team(match.getAwayTeam()), k -> new Standing(k, match));
+        }
+
+        return teamStanding.values().stream()
+                           .sorted()
+                           .map(x -> x.getTeam().getName())
+                           .collect(Collectors.toList());
+    }
+}
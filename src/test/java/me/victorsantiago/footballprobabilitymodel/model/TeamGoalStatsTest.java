@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TeamGoalStatsTest {
+
+    private static final double DELTA = 0.001;
+
+    private TeamGoalStats toTest;
+
+    @Before
+    public void setup() {
+        List<Match> matches = new ArrayList<>();
+        matches.add(Match.builder().home("A").homeGoals(1).away("B").awayGoals(2).build());
+        matches.add(Match.builder().home("A").homeGoals(3).away("C").awayGoals(0).build());
+        matches.add(Match.builder().home("B").homeGoals(1).away("A").awayGoals(1).build());
+
+        toTest = TeamGoalStats.of(matches);
+    }
+
+    @Test
+    public void shouldReturnLeagueAverages() {
+        Assert.assertEquals(3, toTest.getNumberOfMatches());
+        Assert.assertEquals(5 / 3.0, toTest.getAverageGoalsScoredAtHome(), DELTA);
+        Assert.assertEquals(3 / 3.0, toTest.getAverageGoalsScoredAway(), DELTA);
+    }
+
+    @Test
+    public void shouldReturnTeamAverages() {
+        Assert.assertEquals(2.0, toTest.getAverageGoalsScoredAtHome("A"), DELTA);
+        Assert.assertEquals(1.0, toTest.getAverageGoalsConcealedAtHome("A"), DELTA);
+        Assert.assertEquals(1.0, toTest.getAverageGoalsScoredAway("A"), DELTA);
+        Assert.assertEquals(1.0, toTest.getAverageGoalsConcealedAway("A"), DELTA);
+    }
+
+    @Test
+    public void shouldReturnZeroForUnknownTeam() {
+        Assert.assertEquals(0.0, toTest.getAverageGoalsScoredAtHome("D"), DELTA);
+        Assert.assertEquals(0.0, toTest.getAverageGoalsConcealedAway("D"), DELTA);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.model;
+
+import com.google.inject.Guice;
+
+import me.victorsantiago.footballprobabilitymodel.modules.Modules;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TeamRegistryTest {
+
+    private final TeamRegistry toTest = TeamRegistry.getInstance();
+
+    @Test
+    public void shouldReturnSameIdForSameTeam() {
+        final int id = toTest.getId("Registry Team A");
+
+        Assert.assertEquals(id, toTest.getId("Registry Team A"));
+        Assert.assertNotEquals(id, toTest.getId("Registry Team B"));
+        Assert.assertEquals("Registry Team A", toTest.getName(id));
+        Assert.assertEquals(new Team("Registry Team A"), toTest.getTeam(id));
+    }
+
+    @Test
+    public void shouldAssignDenseIds() {
+        final int id = toTest.getId("Registry Team C");
+
+        Assert.assertTrue(id < toTest.size());
+        final int next = toTest.getId("Registry Team D");
+        Assert.assertEquals(toTest.size(), next + 1);
+    }
+
+    @Test
+    public void shouldResolveMatchIds() {
+        Match match = Match.builder().home("Registry Team E").away("Registry Team F").build();
+
+        Assert.assertEquals(toTest.getId("Registry Team E"), match.getHomeId());
+        Assert.assertEquals(toTest.getId("Registry Team F"), match.getAwayId());
+
+        match.setHome("Registry Team F");
+        Assert.assertEquals(match.getAwayId(), match.getHomeId());
+    }
+
+    @Test
+    public void shouldInjectTheProcessRegistry() {
+        Assert.assertSame(toTest, Guice.createInjector(new Modules()).getInstance(TeamRegistry.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownIds() {
+        toTest.getName(toTest.size());
+    }
+}
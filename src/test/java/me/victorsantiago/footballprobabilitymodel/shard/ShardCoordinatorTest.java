@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.shard;
+
+import com.google.gson.Gson;
+import com.google.inject.Guice;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import me.victorsantiago.footballprobabilitymodel.metrics.MetricsOptions;
+import me.victorsantiago.footballprobabilitymodel.model.LeagueMetrics;
+import me.victorsantiago.footballprobabilitymodel.model.PositionCounts;
+import me.victorsantiago.footballprobabilitymodel.modules.Modules;
+import me.victorsantiago.footballprobabilitymodel.util.SerializerUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ShardCoordinatorTest {
+
+    private static final double DELTA = 0.000001;
+    private static final List<String> FILES = Collections.singletonList("src/test/resources/sample.json");
+
+    @Test
+    public void shouldMergeShardsFromWorkerProcesses() throws Exception {
+        final String leagueName = SerializerUtil.getLeagues(FILES.get(0)).get(0).getName();
+        final MetricsOptions options = MetricsOptions.builder().seed(42L).build();
+
+        try (ShardCoordinator toTest = new ShardCoordinator(Modules.BRAZILIAN_CHAMPIONSHIP_METRICS_POISSON, FILES, 2)) {
+            PositionCounts counts = toTest.generatePositionCounts(leagueName, 380, 501, options);
+            LeagueMetrics metrics = toTest.generate(leagueName, 380, 501, options);
+
+            Assert.assertEquals(501, counts.getNumberOfSimulations());
+            Assert.assertEquals(501, metrics.getNumberOfSimulations());
+            Assert.assertEquals(new LeagueMetrics(leagueName, counts), metrics);
+            Assert.assertEquals(1.0, metrics.getChampion().values().stream().mapToDouble(x -> x).sum(), DELTA);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldFailWhenWorkerFails() throws Exception {
+        try (ShardCoordinator toTest = new ShardCoordinator(Modules.BRAZILIAN_CHAMPIONSHIP_METRICS_POISSON, FILES, 1)) {
+            toTest.generate("No such league", 380, 10, MetricsOptions.DEFAULT);
+        }
+    }
+
+    @Test
+    public void shouldCloseWhenWorkerDiesMidTask() throws Exception {
+        final String leagueName = SerializerUtil.getLeagues(FILES.get(0)).get(0).getName();
+        final MetricsOptions options = MetricsOptions.builder().seed(42L).build();
+
+        try (ShardCoordinator toTest = new ShardCoordinator(Modules.BRAZILIAN_CHAMPIONSHIP_METRICS_POISSON, FILES, 2,
+                DyingWorker.class)) {
+            // The first shard gets 251 simulations and its worker dies, while the second one still answers
+            try {
+                toTest.generatePositionCounts(leagueName, 380, 501, options);
+                Assert.fail();
+            } catch (IOException e) {
+                Assert.assertTrue(e.getMessage().contains("closed its output"));
+            }
+
+            try {
+                toTest.generatePositionCounts(leagueName, 380, 500, options);
+                Assert.fail();
+            } catch (IllegalStateException e) {
+                Assert.assertTrue(e.getMessage().contains("closed"));
+            }
+        }
+    }
+
+    /**
+     * Worker that exits without answering tasks with an odd number of simulations, and runs the others.
+     */
+    public static class DyingWorker {
+
+        public static void main(String[] args) throws IOException {
+            final PrintStream output = new PrintStream(System.out, false, StandardCharsets.UTF_8.name());
+            System.setOut(System.err);
+            final BufferedReader input = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            final ShardWorker worker = new ShardWorker(Guice.createInjector(new Modules()));
+            final Gson gson = new Gson();
+            String line;
+
+            while ((line = input.readLine()) != null) {
+                final ShardTask task = gson.fromJson(line, ShardTask.class);
+
+                if (task.getSimulations() % 2 == 1) {
+                    System.exit(1);
+                }
+
+                output.println(gson.toJson(worker.run(task)));
+                output.flush();
+            }
+        }
+    }
+}
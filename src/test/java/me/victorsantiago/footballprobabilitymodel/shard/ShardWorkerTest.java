@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.shard;
+
+import com.google.gson.Gson;
+import com.google.inject.Guice;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.Collections;
+
+import me.victorsantiago.footballprobabilitymodel.modules.Modules;
+import me.victorsantiago.footballprobabilitymodel.util.SerializerUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ShardWorkerTest {
+
+    private final ShardWorker toTest = new ShardWorker(Guice.createInjector(new Modules()));
+
+    @Test
+    public void shouldAnswerEachTaskWithALine() throws Exception {
+        ShardTask task = ShardTask.builder()
+                                  .metricsName(Modules.BRAZILIAN_CHAMPIONSHIP_METRICS_POISSON)
+                                  .matchFiles(Collections.singletonList("src/test/resources/sample.json"))
+                                  .leagueName(SerializerUtil.getLeagues("src/test/resources/sample.json").get(0).getName())
+                                  .historyLimit(380)
+                                  .simulations(100)
+                                  .seed(1L)
+                                  .build();
+        final String line = new Gson().toJson(task);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        toTest.run(new BufferedReader(new StringReader(line + "\n" + line + "\n")), new PrintStream(output, true, "UTF-8"));
+
+        String[] results = output.toString("UTF-8").trim().split("\n");
+        Assert.assertEquals(2, results.length);
+
+        ShardResult first = new Gson().fromJson(results[0], ShardResult.class);
+        ShardResult second = new Gson().fromJson(results[1], ShardResult.class);
+        Assert.assertNull(first.getError());
+        Assert.assertEquals(100, first.getCounts().getNumberOfSimulations());
+        Assert.assertEquals(first.getCounts().getCount(0, 0), second.getCounts().getCount(0, 0));
+    }
+
+    @Test
+    public void shouldReportUnknownLeague() {
+        ShardResult result = toTest.run(ShardTask.builder()
+                                                 .metricsName(Modules.BRAZILIAN_CHAMPIONSHIP_METRICS_POISSON)
+                                                 .matchFiles(Collections.singletonList("src/test/resources/sample.json"))
+                                                 .leagueName("No such league")
+                                                 .simulations(10)
+                                                 .build());
+
+        Assert.assertNull(result.getCounts());
+        Assert.assertTrue(result.getError().contains("No such league"));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.simulation;
+
+import me.victorsantiago.footballprobabilitymodel.calculator.impl.PoissonCalculator;
+import me.victorsantiago.footballprobabilitymodel.model.LeagueMetrics;
+import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.model.MatchProbability;
+import me.victorsantiago.footballprobabilitymodel.model.StandingsTable;
+import me.victorsantiago.footballprobabilitymodel.model.Team;
+import me.victorsantiago.footballprobabilitymodel.util.SerializerUtil;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class LiveSeasonTest {
+
+    private static final double DELTA = 0.000001;
+
+    private List<Match> matches;
+    private LiveSeason toTest;
+
+    @Before
+    public void setup() throws Exception {
+        matches = SerializerUtil.getLeagues("src/test/resources/sample.json").get(0).getMatches();
+        PoissonCalculator calculator = new PoissonCalculator();
+        List<MatchProbability> probabilities = calculator.getMatchesProbabilities(matches, matches);
+
+        toTest = new Simulation(calculator).simulateLive("Live League", StandingsTable.of(matches),
+                IntStream.range(0, matches.size()).toArray(), probabilities, 300, 42L);
+    }
+
+    @Test
+    public void shouldEndWithRealTableOnceEveryResultIsApplied() {
+        for (Match match : matches) {
+            toTest.setResult(match);
+        }
+
+        LeagueMetrics metrics = toTest.getMetrics();
+
+        Assert.assertEquals(0, toTest.getNumberOfRemainingFixtures());
+        Assert.assertEquals(300, metrics.getNumberOfSimulations());
+        Assert.assertEquals(1.0, metrics.getChampion().get(new Team("Palmeiras")), DELTA);
+        Assert.assertEquals(1.0, metrics.getLowRanking().get(new Team("América-MG")), DELTA);
+    }
+
+    @Test
+    public void shouldKeepMetricsConsistentAfterEachResult() {
+        toTest.setResult(0, 9, 0);
+        LeagueMetrics metrics = toTest.getMetrics();
+
+        Assert.assertEquals(matches.size() - 1, toTest.getNumberOfRemainingFixtures());
+        Assert.assertEquals(300, metrics.getNumberOfSimulations());
+        Assert.assertEquals(1.0, metrics.getChampion().values().stream().mapToDouble(Double::doubleValue).sum(), DELTA);
+        Assert.assertEquals(5.0, metrics.getHighRanking().values().stream().mapToDouble(Double::doubleValue).sum(),
+                DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotApplyResultTwice() {
+        toTest.setResult(0, 1, 0);
+        toTest.setResult(0, 1, 0);
+    }
+}
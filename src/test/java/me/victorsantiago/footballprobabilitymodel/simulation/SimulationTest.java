@@ -24,7 +24,10 @@ package me.victorsantiago.footballprobabilitymodel.simulation;
 import me.victorsantiago.footballprobabilitymodel.calculator.Calculator;
 import me.victorsantiago.footballprobabilitymodel.model.Match;
 import me.victorsantiago.footballprobabilitymodel.model.MatchProbability;
+import me.victorsantiago.footballprobabilitymodel.model.PositionCounts;
 import me.victorsantiago.footballprobabilitymodel.model.SimulatedMatch;
+import me.victorsantiago.footballprobabilitymodel.model.SimulationResult;
+import me.victorsantiago.footballprobabilitymodel.model.StandingsTable;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -71,13 +74,74 @@ public class SimulationTest {
                                                            .scoreProbability(mockProbabilities)
                                                            .build();
 
-        when(calculator.getMatchProbability(eq(match), eq(Collections.emptyList())))
-                .thenReturn(mockProbability);
+        when(calculator.getMatchesProbabilities(eq(inputMatches), eq(Collections.emptyList())))
+                .thenReturn(Collections.singletonList(mockProbability));
 
         Map<Match, SimulatedMatch[]> simulations = toTest.simulate(league, inputMatches,
                 Collections.emptyList(), timesToSimulate);
 
-        verify(calculator).getMatchProbability(eq(match), eq(Collections.emptyList()));
+        verify(calculator).getMatchesProbabilities(eq(inputMatches), eq(Collections.emptyList()));
         Assert.assertEquals(timesToSimulate, simulations.get(match).length);
     }
+
+    @Test
+    public void shouldSimulateFromProbabilities() {
+        Match match = Match.builder()
+                           .home("São Paulo")
+                           .away("Corinthians")
+                           .date(new Date())
+                           .build();
+        final double[][] mockProbabilities = new double[][]{
+                {0.0, 0.0},
+                {1.0, 0.0}
+        };
+
+        MatchProbability mockProbability = MatchProbability.builder()
+                                                           .homeTeam("São Paulo")
+                                                           .awayTeam("Corinthians")
+                                                           .scoreProbability(mockProbabilities)
+                                                           .build();
+
+        SimulationResult result = toTest.simulateFromProbabilities("Campeonato Brasileiro",
+                Collections.singletonList(match), Collections.singletonList(mockProbability), 10);
+
+        Assert.assertEquals(10, result.getNumberOfSimulations());
+        for (int simulation = 0; simulation < 10; simulation++) {
+            Assert.assertEquals(1, result.getHomeGoals(0, simulation));
+            Assert.assertEquals(0, result.getAwayGoals(0, simulation));
+        }
+    }
+
+    @Test
+    public void shouldSimulateSameScoresForSameSeed() {
+        Match match = Match.builder()
+                           .home("São Paulo")
+                           .away("Corinthians")
+                           .date(new Date())
+                           .build();
+        MatchProbability probability = MatchProbability.builder()
+                                                       .homeTeam("São Paulo")
+                                                       .awayTeam("Corinthians")
+                                                       .scoreProbability(new double[][]{{0.1, 0.2}, {0.3, 0.4}})
+                                                       .build();
+        List<Match> matches = Collections.nCopies(8, match);
+        List<MatchProbability> probabilities = Collections.nCopies(8, probability);
+
+        SimulationResult first = toTest.simulateFromProbabilities("", matches, probabilities, 1000, 7L);
+        SimulationResult second = toTest.simulateFromProbabilities("", matches, probabilities, 1000, 7L);
+
+        for (int fixture = 0; fixture < matches.size(); fixture++) {
+            for (int simulation = 0; simulation < 1000; simulation++) {
+                Assert.assertEquals(first.getHomeGoals(fixture, simulation), second.getHomeGoals(fixture, simulation));
+                Assert.assertEquals(first.getAwayGoals(fixture, simulation), second.getAwayGoals(fixture, simulation));
+            }
+        }
+
+        StandingsTable table = StandingsTable.of(Collections.singletonList(match));
+        PositionCounts firstCounts = toTest.simulateSeasons(table, Collections.singletonList(probability), 5000, 7L);
+        PositionCounts secondCounts = toTest.simulateSeasons(table, Collections.singletonList(probability), 5000, 7L);
+
+        Assert.assertEquals(firstCounts.getCount(0, 0), secondCounts.getCount(0, 0));
+        Assert.assertEquals(firstCounts.getCount(1, 0), secondCounts.getCount(1, 0));
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.store.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import me.victorsantiago.footballprobabilitymodel.model.League;
+import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.util.SerializerUtil;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BinaryMatchStoreTest {
+
+    private static final double DELTA = 0.000001;
+    private static final String SAMPLE = "src/test/resources/sample.json";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private List<League> leagues;
+
+    private BinaryMatchStore toTest;
+
+    @Before
+    public void setup() throws Exception {
+        final File file = folder.newFile("matches.bin");
+        leagues = SerializerUtil.getLeagues(SAMPLE);
+        BinaryMatchStore.convert(file.toPath(), SAMPLE);
+        toTest = BinaryMatchStore.open(file.toPath());
+    }
+
+    @Test
+    public void shouldReadSameMatchesAsJson() {
+        Assert.assertEquals(leagues.size(), toTest.getNumberOfLeagues());
+
+        int position = 0;
+        for (int league = 0; league < leagues.size(); league++) {
+            Assert.assertEquals(leagues.get(league).getName(), toTest.getLeagueName(league));
+            Assert.assertEquals(leagues.get(league).getYear(), toTest.getLeagueYear(league));
+            Assert.assertEquals(leagues.get(league).getChampion(), toTest.getLeagueChampion(league));
+            Assert.assertEquals(position, toTest.getFirstMatch(league));
+            Assert.assertEquals(leagues.get(league).getMatches().size(), toTest.getLeagueSize(league));
+
+            for (Match match : leagues.get(league).getMatches()) {
+                Assert.assertEquals(match.getHomeId(), toTest.getHomeTeamId(position));
+                Assert.assertEquals(match.getAwayId(), toTest.getAwayTeamId(position));
+                Assert.assertEquals(match.getEpochDay(), toTest.getEpochDay(position));
+                Assert.assertEquals(match.getHomeGoals(), toTest.getHomeGoals(position));
+                Assert.assertEquals(match.getAwayGoals(), toTest.getAwayGoals(position));
+                Assert.assertEquals(match.getK(), toTest.getK(position), DELTA);
+                position++;
+            }
+        }
+
+        Assert.assertEquals(position, toTest.getNumberOfMatches());
+    }
+
+    @Test
+    public void shouldBuildMatchObjects() {
+        Match expected = leagues.get(0).getMatches().get(10);
+        Match result = toTest.getLeagues().get(0).getMatches().get(10);
+
+        Assert.assertEquals(expected.getHome(), result.getHome());
+        Assert.assertEquals(expected.getAway(), result.getAway());
+        Assert.assertEquals(expected.getHomeGoals(), result.getHomeGoals());
+        Assert.assertEquals(expected.getAwayGoals(), result.getAwayGoals());
+        Assert.assertEquals(expected.getEpochDay(), result.getEpochDay());
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectOtherFiles() throws Exception {
+        BinaryMatchStore.open(new File(SAMPLE).toPath());
+    }
+}
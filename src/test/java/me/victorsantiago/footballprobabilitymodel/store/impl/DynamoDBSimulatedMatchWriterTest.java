@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.store.impl;
+
+import com.amazonaws.services.dynamodbv2.AbstractAmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.model.SimulatedMatch;
+import me.victorsantiago.footballprobabilitymodel.model.SimulationResult;
+import me.victorsantiago.footballprobabilitymodel.util.SerializerUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DynamoDBSimulatedMatchWriterTest {
+
+    private static final String SAMPLE = "src/test/resources/sample.json";
+    private static final int MAX_PENDING_REQUESTS = 4;
+    private static final long LATENCY_MILLIS = 2;
+
+    private ExecutorService executor;
+    private List<Match> fixtures;
+
+    @Before
+    public void setup() throws Exception {
+        executor = Executors.newFixedThreadPool(8);
+        fixtures = SerializerUtil.getLeagues(SAMPLE).get(0).getMatches();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldStoreEverySimulatedMatchInBatches() {
+        FakeDynamoDB dynamoDB = new FakeDynamoDB(3, false);
+        DynamoDBSimulatedMatchWriter toTest = new DynamoDBSimulatedMatchWriter(dynamoDB, executor,
+                MAX_PENDING_REQUESTS, 5, 0);
+
+        // Both results are simulated at about the same instant, so their keys must not depend on the time.
+        SimulationResult first = new SimulationResult("LEAGUE", fixtures, 10);
+        SimulationResult second = new SimulationResult("LEAGUE", fixtures, 10);
+        first.setScore(3, 7, 2, 1);
+
+        try (DynamoDBSimulatedMatchWriter writer = toTest) {
+            writer.write(first);
+            writer.write(second);
+        }
+
+        final int items = 2 * fixtures.size() * 10;
+        Assert.assertEquals(items, dynamoDB.items.size());
+        Assert.assertEquals(items, toTest.getNumberOfWrittenItems());
+        Assert.assertEquals(dynamoDB.throttled.size(), toTest.getNumberOfRetriedItems());
+        Assert.assertTrue(toTest.getNumberOfRetriedItems() > 0);
+        Assert.assertEquals(dynamoDB.requests.get(), toTest.getNumberOfRequests());
+        Assert.assertTrue(dynamoDB.maxBatchSize.get() <= DynamoDBSimulatedMatchWriter.MAX_BATCH_SIZE);
+
+        // Requests overlap, but never more of them than the writer allows.
+        Assert.assertTrue(dynamoDB.maxPendingRequests.get() > 1);
+        Assert.assertTrue(dynamoDB.maxPendingRequests.get() <= MAX_PENDING_REQUESTS);
+
+        Map<String, AttributeValue> item = dynamoDB.items.get(
+                SimulatedMatch.getSimulationId(first.getRunId(), 7) + "/" + 3);
+        Assert.assertEquals("LEAGUE", item.get(SimulatedMatch.LEAGUE_NAME).getS());
+        Assert.assertEquals(fixtures.get(3).getHome(), item.get(SimulatedMatch.HOME_TEAM).getS());
+        Assert.assertEquals("2", item.get(SimulatedMatch.HOME_TEAM_GOALS).getN());
+        Assert.assertEquals("1", item.get(SimulatedMatch.AWAY_TEAM_GOALS).getN());
+        Assert.assertEquals(fixtures.get(3).getDate().toInstant().toString(), item.get(SimulatedMatch.MATCH_DATE).getS());
+    }
+
+    @Test
+    public void shouldFailWhenItemsStayUnprocessed() {
+        FakeDynamoDB dynamoDB = new FakeDynamoDB(1, true);
+        DynamoDBSimulatedMatchWriter toTest = new DynamoDBSimulatedMatchWriter(dynamoDB, executor,
+                MAX_PENDING_REQUESTS, 2, 0);
+
+        toTest.write(new SimulationResult("LEAGUE", fixtures.subList(0, 1), 1).getSimulatedMatch(0, 0));
+
+        try {
+            toTest.flush();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals(3, toTest.getNumberOfRequests());
+            Assert.assertEquals(0, toTest.getNumberOfWrittenItems());
+        }
+    }
+
+    /**
+     * Local stand-in for a table, keyed like {@link SimulatedMatch}. Each request takes a fixed time, and the items
+     * of every N-th fixture are left unprocessed on their first attempt, as a throttled table would.
+     */
+    private static class FakeDynamoDB extends AbstractAmazonDynamoDB {
+
+        private final int throttleEvery;
+        private final boolean throttleRetries;
+        private final Map<String, Map<String, AttributeValue>> items = new ConcurrentHashMap<>();
+        private final Set<String> throttled = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicInteger pendingRequests = new AtomicInteger();
+        private final AtomicInteger maxPendingRequests = new AtomicInteger();
+        private final AtomicInteger maxBatchSize = new AtomicInteger();
+
+        /**
+         * @param throttleEvery Items of every N-th fixture are left unprocessed.
+         * @param throttleRetries Whether they're left unprocessed on every attempt, as a table that never catches up.
+         */
+        FakeDynamoDB(int throttleEvery, boolean throttleRetries) {
+            this.throttleEvery = throttleEvery;
+            this.throttleRetries = throttleRetries;
+        }
+
+        @Override
+        public BatchWriteItemResult batchWriteItem(BatchWriteItemRequest request) {
+            requests.incrementAndGet();
+            maxPendingRequests.accumulateAndGet(pendingRequests.incrementAndGet(), Math::max);
+
+            try {
+                Thread.sleep(LATENCY_MILLIS);
+
+                List<WriteRequest> writes = request.getRequestItems().get(SimulatedMatch.TABLE_NAME);
+                maxBatchSize.accumulateAndGet(writes.size(), Math::max);
+
+                List<WriteRequest> unprocessed = new ArrayList<>();
+                for (WriteRequest write : writes) {
+                    Map<String, AttributeValue> item = write.getPutRequest().getItem();
+                    String key = item.get(SimulatedMatch.SIMULATION_ID).getS() + "/"
+                            + item.get(SimulatedMatch.FIXTURE).getN();
+
+                    if (Integer.parseInt(item.get(SimulatedMatch.FIXTURE).getN()) % throttleEvery == 0
+                            && (throttled.add(key) || throttleRetries)) {
+                        unprocessed.add(write);
+                    } else {
+                        Assert.assertNull(items.put(key, item));
+                    }
+                }
+
+                return new BatchWriteItemResult().withUnprocessedItems(unprocessed.isEmpty()
+                        ? Collections.emptyMap()
+                        : Collections.singletonMap(SimulatedMatch.TABLE_NAME, unprocessed));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                pendingRequests.decrementAndGet();
+            }
+        }
+    }
+}
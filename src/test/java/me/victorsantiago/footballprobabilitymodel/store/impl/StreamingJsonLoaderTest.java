@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.store.impl;
+
+import java.io.File;
+import java.util.List;
+
+import me.victorsantiago.footballprobabilitymodel.model.League;
+import me.victorsantiago.footballprobabilitymodel.model.Match;
+import me.victorsantiago.footballprobabilitymodel.store.IngestionStats;
+import me.victorsantiago.footballprobabilitymodel.util.SerializerUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StreamingJsonLoaderTest {
+
+    private static final double DELTA = 0.000001;
+    private static final String SAMPLE = "src/test/resources/sample.json";
+
+    private final StreamingJsonLoader toTest = new StreamingJsonLoader();
+
+    @Test
+    public void shouldLoadSameMatchesAsGson() throws Exception {
+        List<League> leagues = SerializerUtil.getLeagues(SAMPLE, SAMPLE);
+        InMemoryMatchStore store = toTest.load(SAMPLE, SAMPLE);
+
+        Assert.assertEquals(leagues.size(), store.getNumberOfLeagues());
+
+        int position = 0;
+        for (int league = 0; league < leagues.size(); league++) {
+            Assert.assertEquals(leagues.get(league).getName(), store.getLeagueName(league));
+            Assert.assertEquals(leagues.get(league).getChampion(), store.getLeagueChampion(league));
+            Assert.assertEquals(leagues.get(league).getYear(), store.getLeagueYear(league));
+            Assert.assertEquals(position, store.getFirstMatch(league));
+
+            for (Match match : leagues.get(league).getMatches()) {
+                Assert.assertEquals(match.getHomeId(), store.getHomeTeamId(position));
+                Assert.assertEquals(match.getAwayId(), store.getAwayTeamId(position));
+                Assert.assertEquals(match.getEpochDay(), store.getEpochDay(position));
+                Assert.assertEquals(match.getHomeGoals(), store.getHomeGoals(position));
+                Assert.assertEquals(match.getAwayGoals(), store.getAwayGoals(position));
+                Assert.assertEquals(match.getK(), store.getK(position), DELTA);
+                position++;
+            }
+        }
+
+        Assert.assertEquals(position, store.getNumberOfMatches());
+    }
+
+    @Test
+    public void shouldReportIngestionStats() throws Exception {
+        InMemoryMatchStore store = toTest.load(SAMPLE);
+        IngestionStats stats = toTest.getLastStats();
+
+        Assert.assertEquals(1, stats.getNumberOfFiles());
+        Assert.assertEquals(new File(SAMPLE).length(), stats.getBytes());
+        Assert.assertEquals(store.getNumberOfMatches(), stats.getNumberOfMatches());
+        Assert.assertTrue(stats.getBytesPerSecond() > 0);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2018 victords
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package me.victorsantiago.footballprobabilitymodel.telemetry;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TelemetryTest {
+
+    @Test
+    public void shouldRecordNothingWhenDisabled() {
+        Telemetry toTest = new Telemetry(false);
+
+        Counter counter = toTest.counter("test_total", "Test counter.");
+        Timer timer = toTest.timer("test_seconds", "Test timer.");
+        counter.increment();
+        Assert.assertEquals(0, timer.stop(timer.start()));
+
+        Assert.assertEquals(0, counter.getCount());
+        Assert.assertEquals(0, timer.getCount());
+    }
+
+    @Test
+    public void shouldReturnSameSeriesForSameLabels() {
+        Telemetry toTest = new Telemetry(true);
+
+        toTest.counter("test_total", "Test counter.", "league", "A").add(2);
+        toTest.counter("test_total", "Test counter.", "league", "A").increment();
+        toTest.counter("test_total", "Test counter.", "league", "B").increment();
+
+        Assert.assertEquals(3, toTest.counter("test_total", "Test counter.", "league", "A").getCount());
+        Assert.assertEquals(1, toTest.counter("test_total", "Test counter.", "league", "B").getCount());
+    }
+
+    @Test
+    public void shouldBucketHistogramValues() {
+        Histogram histogram = new Telemetry(true).histogram("test", "Test histogram.", 10);
+
+        histogram.record(10);
+        histogram.record(11);
+        histogram.record(Long.MAX_VALUE / 2);
+
+        Assert.assertEquals(3, histogram.getCount());
+        Assert.assertEquals(10, histogram.getUpperBound(0));
+        Assert.assertEquals(40, histogram.getUpperBound(1));
+        Assert.assertEquals(Long.MAX_VALUE, histogram.getUpperBound(histogram.getNumberOfBuckets() - 1));
+        Assert.assertEquals(1, histogram.getBucketCount(0));
+        Assert.assertEquals(1, histogram.getBucketCount(1));
+        Assert.assertEquals(1, histogram.getBucketCount(histogram.getNumberOfBuckets() - 1));
+    }
+
+    @Test
+    public void shouldExportPrometheusText() {
+        Telemetry toTest = new Telemetry(true);
+
+        toTest.counter("test_total", "Test counter.", "league", "A\"1").add(5);
+        toTest.gauge("test_size", "Test gauge.", () -> 7);
+        toTest.timer("test_seconds", "Test timer.").getHistogram().record(2_000);
+
+        final String text = toTest.toPrometheus();
+
+        Assert.assertTrue(text.contains("# TYPE test_total counter\n"));
+        Assert.assertTrue(text.contains("test_total{league=\"A\\\"1\"} 5\n"));
+        Assert.assertTrue(text.contains("# TYPE test_size gauge\ntest_size 7.0\n"));
+        Assert.assertTrue(text.contains("# TYPE test_seconds histogram\n"));
+        Assert.assertTrue(text.contains("test_seconds_bucket{le=\"1.0E-6\"} 0\n"));
+        Assert.assertTrue(text.contains("test_seconds_bucket{le=\"4.0E-6\"} 1\n"));
+        Assert.assertTrue(text.contains("test_seconds_bucket{le=\"+Inf\"} 1\n"));
+        Assert.assertTrue(text.contains("test_seconds_sum 2.0E-6\n"));
+        Assert.assertTrue(text.contains("test_seconds_count 1\n"));
+    }
+
+    @Test
+    public void shouldExportJsonSnapshot() {
+        Telemetry toTest = new Telemetry(true);
+
+        toTest.counter("test_total", "Test counter.", "league", "A").add(5);
+        toTest.timer("test_seconds", "Test timer.").getHistogram().record(3_000_000_000L);
+
+        JsonObject snapshot = new JsonParser().parse(toTest.toJson()).getAsJsonObject();
+
+        Assert.assertEquals(5, snapshot.getAsJsonObject("counters").get("test_total{league=\"A\"}").getAsLong());
+        JsonObject timer = snapshot.getAsJsonObject("timers").getAsJsonObject("test_seconds");
+        Assert.assertEquals(1, timer.get("count").getAsLong());
+        Assert.assertEquals(3.0, timer.get("totalSeconds").getAsDouble(), 1e-9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotMixMetricTypes() {
+        Telemetry toTest = new Telemetry(true);
+
+        toTest.counter("test", "Test counter.");
+        toTest.timer("test", "Test timer.");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequireLabelPairs() {
+        new Telemetry(true).counter("test_total", "Test counter.", "league");
+    }
+}